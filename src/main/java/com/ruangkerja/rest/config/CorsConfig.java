@@ -21,7 +21,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins("*")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
-                .exposedHeaders("X-User-Id")
+                .exposedHeaders("X-User-Id", "X-Next-Cursor")
                 .allowCredentials(false);
     }    @Bean
     public CorsConfigurationSource corsConfigurationSource() {
@@ -1,7 +1,19 @@
 package com.ruangkerja.rest.config;
 
+import com.ruangkerja.rest.service.PresenceService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -16,16 +28,98 @@ import java.util.UUID;
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final long HEARTBEAT_MS = 10_000;
+
+    public static final String BROKER_SIMPLE = "simple";
+    public static final String BROKER_RELAY = "relay";
+
+    // "simple" keeps subscriptions in this JVM; "relay" forwards to an external STOMP broker
+    // (RabbitMQ, ActiveMQ Artemis, ...) so several nodes can run behind the load balancer
+    // Lazy: PresenceService needs the messaging template this configuration creates
+    @Autowired
+    @Lazy
+    private PresenceService presenceService;
+
+    private ThreadPoolTaskScheduler heartbeatScheduler;
+
+    @Value("${app.websocket.broker:simple}")
+    private String broker = BROKER_SIMPLE;
+
+    @Value("${app.websocket.relay.host:localhost}")
+    private String relayHost = "localhost";
+
+    @Value("${app.websocket.relay.port:61613}")
+    private int relayPort = 61613;
+
+    @Value("${app.websocket.relay.login:guest}")
+    private String relayLogin = "guest";
+
+    @Value("${app.websocket.relay.passcode:guest}")
+    private String relayPasscode = "guest";
+
+    @Value("${app.websocket.relay.virtual-host:}")
+    private String relayVirtualHost = "";
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple memory-based message broker
-        config.enableSimpleBroker("/topic", "/queue");
+        if (BROKER_RELAY.equalsIgnoreCase(broker)) {
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Share connected users between nodes, and let the node holding a user's
+                    // session deliver /user destinations the sending node cannot resolve
+                    .setUserRegistryBroadcast("/topic/simp-user-registry")
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination");
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            // Enable a simple memory-based message broker, with heartbeats so dead clients are
+            // disconnected (and marked offline) instead of lingering
+            config.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[]{HEARTBEAT_MS, HEARTBEAT_MS})
+                    .setTaskScheduler(heartbeatScheduler());
+        }
         // Set application destination prefix
         config.setApplicationDestinationPrefixes("/app");
         // Set user destination prefix for private messages
         config.setUserDestinationPrefix("/user");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Any inbound frame, heartbeats included, counts as the user being seen
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                presenceService.touch(SimpMessageHeaderAccessor.getUser(message.getHeaders()));
+                return message;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (heartbeatScheduler != null) {
+            heartbeatScheduler.shutdown();
+        }
+    }
+
+    // Not a bean: a TaskScheduler bean would replace Boot's default application task executor
+    private synchronized ThreadPoolTaskScheduler heartbeatScheduler() {
+        if (heartbeatScheduler == null) {
+            heartbeatScheduler = new ThreadPoolTaskScheduler();
+            heartbeatScheduler.setPoolSize(1);
+            heartbeatScheduler.setThreadNamePrefix("ws-heartbeat-");
+            heartbeatScheduler.initialize();
+        }
+        return heartbeatScheduler;
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Register STOMP endpoint with SockJS fallback
@@ -5,6 +5,9 @@ import com.ruangkerja.rest.entity.Candidate;
 import com.ruangkerja.rest.entity.User;
 import com.ruangkerja.rest.repository.CandidateRepository;
 import com.ruangkerja.rest.repository.UserRepository;
+import com.ruangkerja.rest.service.ImageVariantService;
+import com.ruangkerja.rest.service.LocationDictionaryService;
+import com.ruangkerja.rest.service.SearchIndexService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -28,10 +31,8 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/candidates")
@@ -49,6 +50,9 @@ public class CandidateController {
 
     private final CandidateRepository candidateRepository;
     private final UserRepository userRepository;
+    private final SearchIndexService searchIndexService;
+    private final LocationDictionaryService locationDictionaryService;
+    private final ImageVariantService imageVariantService;
 
     @Value("${app.upload.dir:uploads/images/}")
     private String uploadDir;
@@ -112,6 +116,7 @@ public class CandidateController {
             // Save file
             Path targetLocation = uploadPath.resolve(uniqueFilename);
             Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            imageVariantService.generateVariants(targetLocation);
 
             // Update candidate profile image info
             String imageUrl = "/api/v1/images/" + uniqueFilename;
@@ -237,6 +242,8 @@ public class CandidateController {
             candidate.setEmploymentStatus(request.getEmploymentStatus().trim());
 
             Candidate savedCandidate = candidateRepository.save(candidate);
+            searchIndexService.indexCandidate(savedCandidate);
+            locationDictionaryService.invalidateCandidates();
 
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
@@ -327,6 +334,8 @@ public class CandidateController {
             candidate.setBiodata(request.getBiodata().trim());
 
             Candidate updatedCandidate = candidateRepository.save(candidate);
+            searchIndexService.indexCandidate(updatedCandidate);
+            locationDictionaryService.invalidateCandidates();
 
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
@@ -355,6 +364,8 @@ public class CandidateController {
             }
 
             candidateRepository.deleteById(id);
+            searchIndexService.removeCandidate(id);
+            locationDictionaryService.invalidateCandidates();
 
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
@@ -371,13 +382,7 @@ public class CandidateController {
     @GetMapping("/provinces")
     public ResponseEntity<Map<String, Object>> getProvinces() {
         try {
-            List<String> provinces = candidateRepository.findAll()
-                .stream()
-                .map(Candidate::getProvince)
-                .filter(Objects::nonNull)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+            List<String> provinces = locationDictionaryService.getCandidateProvinces();
 
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
@@ -392,13 +397,7 @@ public class CandidateController {
     @GetMapping("/cities/{province}")
     public ResponseEntity<Map<String, Object>> getCitiesByProvince(@PathVariable String province) {
         try {
-            List<String> cities = candidateRepository.findByProvince(province)
-                .stream()
-                .map(Candidate::getCity)
-                .filter(Objects::nonNull)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+            List<String> cities = locationDictionaryService.getCandidateCities(province);
 
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
@@ -429,6 +428,7 @@ public class CandidateController {
     private void deleteOldProfileImage(String imagePath) {
         try {
             Path path = Paths.get(imagePath);
+            imageVariantService.deleteVariants(path);
             Files.deleteIfExists(path);
         } catch (IOException ex) {
             logger.error("Failed to delete old profile image: {}", imagePath, ex);
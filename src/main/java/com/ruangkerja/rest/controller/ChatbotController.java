@@ -1,202 +1,232 @@
 package com.ruangkerja.rest.controller;
 
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.ruangkerja.rest.dto.ChatRequestDto;
 import com.ruangkerja.rest.dto.ChatResponseDto;
 import com.ruangkerja.rest.dto.ChatMessageDto;
+import com.ruangkerja.rest.service.ChatbotPromptBuilder;
+import com.ruangkerja.rest.service.ChatbotResponseCache;
+import com.ruangkerja.rest.service.ChatbotSessionStore;
+import com.ruangkerja.rest.service.GeminiCallGuard;
+import com.ruangkerja.rest.service.GeminiClient;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 @RestController
 @RequestMapping("/api/chatbot")
 @CrossOrigin(origins = "*")
-public class ChatbotController {    // Constants
-    private static final String GEMINI_API_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent";
-    private static final String CONTENT_KEY = "content";
-    private static final String PARTS_KEY = "parts";
-    private static final String CANDIDATES_KEY = "candidates";
-    private static final String TEXT_KEY = "text";
-
-    @Value("${gemini.api.key}")
-    private String geminiApiKey;
-    
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
-
-    // Custom exception for chatbot errors
-    public static class ChatbotException extends Exception {
-        public ChatbotException(String message) {
-            super(message);
-        }
-        
-        public ChatbotException(String message, Throwable cause) {
-            super(message, cause);
+@RequiredArgsConstructor
+@Slf4j
+public class ChatbotController {
+
+    private static final int RETRY_AFTER_SECONDS = 5;
+
+    private final GeminiCallGuard geminiCallGuard;
+    private final ChatbotResponseCache responseCache;
+    private final ChatbotPromptBuilder promptBuilder;
+    private final ChatbotSessionStore sessionStore;
+
+    @Value("${gemini.api.stream-timeout-ms:120000}")
+    private long streamTimeoutMs = 120000;
+
+    // Returns a future so the servlet thread is released while Gemini generates the answer
+    @PostMapping("/chat")
+    public CompletableFuture<ResponseEntity<ChatResponseDto>> chat(@RequestBody ChatRequestDto request) {
+        String userMessage = request.getMessage();
+
+        if (userMessage == null || userMessage.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body(new ChatResponseDto(false, null, "Message cannot be empty")));
         }
-    }    @PostMapping("/chat")
-    public ResponseEntity<ChatResponseDto> chat(@RequestBody ChatRequestDto request) {
-        try {
-            String userMessage = request.getMessage();
-            List<ChatMessageDto> conversationHistory = request.getConversationHistory();
-            
-            if (userMessage == null || userMessage.trim().isEmpty()) {
-                return ResponseEntity.badRequest().body(new ChatResponseDto(false, null, "Message cannot be empty"));
+
+        ChatbotSessionStore.Session session = openSession(request);
+        List<ChatMessageDto> conversationHistory = session != null ? session.history() : request.getConversationHistory();
+
+        // Answers without history depend only on the question, so they can be shared
+        boolean cacheable = conversationHistory == null || conversationHistory.isEmpty();
+        if (cacheable) {
+            Optional<String> cached = responseCache.get(userMessage);
+            if (cached.isPresent()) {
+                return CompletableFuture.completedFuture(ResponseEntity.ok(answered(session, userMessage, cached.get())));
             }
+        }
+
+        // Create context for RuangKerja-specific responses
+        String contextualPrompt = promptBuilder.build(userMessage, conversationHistory);
+
+        return geminiCallGuard.generateContent(contextualPrompt)
+                .thenApply(geminiResponse -> {
+                    if (cacheable) {
+                        responseCache.put(userMessage, geminiResponse);
+                    }
+                    return ResponseEntity.ok(answered(session, userMessage, geminiResponse));
+                })
+                .exceptionally(ChatbotController::errorResponse);
+    }
 
-            // Create context for RuangKerja-specific responses
-            String contextualPrompt = buildContextualPrompt(userMessage, conversationHistory);
-            
-            // Call Gemini API
-            String geminiResponse = callGeminiAPI(contextualPrompt);
-            
-            return ResponseEntity.ok(new ChatResponseDto(true, geminiResponse));
-            
-        } catch (ChatbotException e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ChatResponseDto(false, null, "Chatbot error: " + e.getMessage()));
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ChatResponseDto(false, null, "Internal server error: " + e.getMessage()));
+    // Streams the answer as server-sent events: "session" with {"sessionId": ...} when a session is
+    // used, "chunk" events carrying {"text": ...} as Gemini produces them, then "done", or "error"
+    // with {"error": ...}. Disconnecting stops the upstream call.
+    @PostMapping(path = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> chatStream(@RequestBody ChatRequestDto request) {
+        String userMessage = request.getMessage();
+        if (userMessage == null || userMessage.trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
         }
-    }    private String buildContextualPrompt(String userMessage, List<ChatMessageDto> conversationHistory) {
-        StringBuilder prompt = new StringBuilder();
-        
-        // UPDATED: More engaging system context
-        prompt.append("You are an enthusiastic and knowledgeable AI career consultant for RuangKerja, Indonesia's premier professional networking platform. ");
-        prompt.append("You're passionate about helping job seekers and professionals succeed in their careers. ");
-        prompt.append("RuangKerja connects talented individuals with amazing opportunities across Indonesia. ");
-        
-        prompt.append("Your personality: ");
-        prompt.append("- Friendly, encouraging, and motivational ");
-        prompt.append("- Provide specific, actionable advice ");
-        prompt.append("- Use examples and practical tips ");
-        prompt.append("- Be conversational and engaging ");
-        prompt.append("- Show enthusiasm for career growth ");
-        prompt.append("- Ask follow-up questions when helpful ");
-        
-        prompt.append("Topics you excel at: ");
-        prompt.append("- Job search strategies and hidden job markets ");
-        prompt.append("- Resume optimization with ATS-friendly tips ");
-        prompt.append("- Interview preparation and negotiation tactics ");
-        prompt.append("- LinkedIn and professional networking ");
-        prompt.append("- Career transitions and skill development ");
-        prompt.append("- Industry insights and market trends ");
-        prompt.append("- Personal branding and professional presence ");
-        
-        prompt.append("Always provide specific, actionable advice with examples. ");
-        prompt.append("If the question isn't career-related, politely redirect with career insights. ");
-        prompt.append("Keep responses engaging but concise (2-3 paragraphs max).\n\n");
-        
-        // Add conversation history for context
-        if (conversationHistory != null && !conversationHistory.isEmpty()) {
-            prompt.append("Conversation history:\n");
-            for (ChatMessageDto message : conversationHistory) {
-                String role = message.getRole();
-                String content = message.getContent();
-                
-                if (role != null && content != null) {
-                    prompt.append(role.equals("user") ? "User: " : "Assistant: ");
-                    prompt.append(content).append("\n");
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        ChatbotSessionStore.Session session = openSession(request);
+        List<ChatMessageDto> conversationHistory = session != null ? session.history() : request.getConversationHistory();
+        if (session != null) {
+            try {
+                emitter.send(SseEmitter.event().name("session").data(Map.of("sessionId", session.getId())));
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+                return ResponseEntity.ok(emitter);
+            }
+        }
+
+        boolean cacheable = conversationHistory == null || conversationHistory.isEmpty();
+        if (cacheable) {
+            Optional<String> cached = responseCache.get(userMessage);
+            if (cached.isPresent()) {
+                answered(session, userMessage, cached.get());
+                try {
+                    emitter.send(SseEmitter.event().name("chunk").data(Map.of("text", cached.get())));
+                    emitter.send(SseEmitter.event().name("done").data(Map.of()));
+                    emitter.complete();
+                } catch (IOException e) {
+                    emitter.completeWithError(e);
                 }
+                return ResponseEntity.ok(emitter);
             }
-            prompt.append("\n");
         }
-        
-        // Add current user message
-        prompt.append("Current user question: ").append(userMessage);
-        prompt.append("\n\nProvide an engaging, helpful response with specific actionable advice:");
-        
-        return prompt.toString();
-    }
 
-    private String callGeminiAPI(String prompt) throws ChatbotException {
-        try {
-            // Prepare request body for Gemini API
-            Map<String, Object> requestBody = new HashMap<>();
-            
-            // Create contents array
-            List<Map<String, Object>> contents = new ArrayList<>();
-            Map<String, Object> content = new HashMap<>();
-            
-            List<Map<String, String>> parts = new ArrayList<>();
-            Map<String, String> part = new HashMap<>();
-            part.put(TEXT_KEY, prompt);
-            parts.add(part);
-            
-            content.put(PARTS_KEY, parts);
-            contents.add(content);
-            
-            requestBody.put("contents", contents);
-            
-            // Add generation config for better responses
-            Map<String, Object> generationConfig = new HashMap<>();
-            generationConfig.put("temperature", 0.7);
-            generationConfig.put("topK", 40);
-            generationConfig.put("topP", 0.95);
-            generationConfig.put("maxOutputTokens", 1024);
-            requestBody.put("generationConfig", generationConfig);
-            
-            // Add safety settings
-            List<Map<String, Object>> safetySettings = new ArrayList<>();
-            String[] categories = {"HARM_CATEGORY_HARASSMENT", "HARM_CATEGORY_HATE_SPEECH", 
-                                  "HARM_CATEGORY_SEXUALLY_EXPLICIT", "HARM_CATEGORY_DANGEROUS_CONTENT"};
-            for (String category : categories) {
-                Map<String, Object> setting = new HashMap<>();
-                setting.put("category", category);
-                setting.put("threshold", "BLOCK_MEDIUM_AND_ABOVE");
-                safetySettings.add(setting);
+        String contextualPrompt = promptBuilder.build(userMessage, conversationHistory);
+        AtomicReference<CompletableFuture<Void>> upstream = new AtomicReference<>();
+        StringBuffer answer = new StringBuffer();
+
+        CompletableFuture<Void> stream = geminiCallGuard.streamGenerateContent(contextualPrompt, text -> {
+            answer.append(text);
+            try {
+                emitter.send(SseEmitter.event().name("chunk").data(Map.of("text", text)));
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; stop reading from Gemini and release the async request now,
+                // since the completion handler below skips cancelled streams
+                CompletableFuture<Void> current = upstream.get();
+                if (current != null) {
+                    current.cancel(true);
+                }
+                emitter.completeWithError(e);
+            }
+        });
+        upstream.set(stream);
+
+        Runnable cancel = () -> stream.cancel(true);
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(error -> stream.cancel(true));
+
+        stream.whenComplete((ignored, error) -> {
+            if (stream.isCancelled()) {
+                return;
             }
-            requestBody.put("safetySettings", safetySettings);
-
-            // Set headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            // Create HTTP entity
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-            
-            // Make API call
-            String url = GEMINI_API_URL + "?key=" + geminiApiKey;
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
-            
-            // Parse response
-            JsonNode responseJson = objectMapper.readTree(response.getBody());
-            
-            if (responseJson.has(CANDIDATES_KEY) && responseJson.get(CANDIDATES_KEY).size() > 0) {
-                JsonNode candidate = responseJson.get(CANDIDATES_KEY).get(0);
-                if (candidate.has(CONTENT_KEY) && candidate.get(CONTENT_KEY).has(PARTS_KEY) && 
-                    candidate.get(CONTENT_KEY).get(PARTS_KEY).size() > 0) {
-                    return candidate.get(CONTENT_KEY).get(PARTS_KEY).get(0).get(TEXT_KEY).asText();
+            try {
+                if (error == null) {
+                    if (cacheable) {
+                        responseCache.put(userMessage, answer.toString());
+                    }
+                    answered(session, userMessage, answer.toString());
+                    emitter.send(SseEmitter.event().name("done").data(Map.of()));
+                } else {
+                    emitter.send(SseEmitter.event().name("error").data(Map.of("error", errorMessage(error))));
                 }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // Client already gone
+                emitter.completeWithError(e);
             }
-            
-            // If we can't parse the response properly, return a fallback message
-            throw new ChatbotException("Unable to parse response from Gemini API");
-            
-        } catch (Exception e) {
-            throw new ChatbotException("Error calling Gemini API", e);
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
+    // Ends a session early; otherwise it expires after app.chatbot.session.ttl-minutes of inactivity
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<Void> endSession(@PathVariable String sessionId) {
+        sessionStore.remove(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Clients that still send their own history (and no session id) keep working statelessly
+    private ChatbotSessionStore.Session openSession(ChatRequestDto request) {
+        List<ChatMessageDto> clientHistory = request.getConversationHistory();
+        if (request.getSessionId() == null && clientHistory != null && !clientHistory.isEmpty()) {
+            return null;
+        }
+        return sessionStore.open(request.getSessionId());
+    }
+
+    private ChatResponseDto answered(ChatbotSessionStore.Session session, String userMessage, String answer) {
+        ChatResponseDto response = new ChatResponseDto(true, answer);
+        if (session != null) {
+            sessionStore.append(session, userMessage, answer);
+            response.setSessionId(session.getId());
+        }
+        return response;
+    }
+
+    private static ResponseEntity<ChatResponseDto> errorResponse(Throwable error) {
+        if (unwrap(error) instanceof GeminiCallGuard.RejectedException) {
+            // Shed load quickly instead of tying up more threads on Gemini
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+                    .body(new ChatResponseDto(false, null, errorMessage(error)));
         }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ChatResponseDto(false, null, errorMessage(error)));
+    }
+
+    private static String errorMessage(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof GeminiCallGuard.RejectedException) {
+            log.debug("Chatbot request rejected: {}", cause.getMessage());
+            return "Chatbot is busy, please try again shortly";
+        }
+        String message = cause instanceof GeminiClient.GeminiException
+                ? "Chatbot error: " + cause.getMessage()
+                : "Internal server error: " + cause.getMessage();
+        log.warn("Chatbot request failed: {}", message, cause);
+        return message;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 
     @GetMapping("/health")
-    public ResponseEntity<Map<String, String>> health() {
-        Map<String, String> response = new HashMap<>();
+    public ResponseEntity<Map<String, Object>> health() {
+        Map<String, Object> response = new HashMap<>();
         response.put("status", "OK");
         response.put("service", "RuangKerja Chatbot");
+        response.put("cache", responseCache.stats());
+        response.put("gemini", geminiCallGuard.stats());
+        response.put("sessions", sessionStore.stats());
         return ResponseEntity.ok(response);
     }
 }
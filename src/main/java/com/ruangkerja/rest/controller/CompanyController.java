@@ -8,6 +8,9 @@ import com.ruangkerja.rest.entity.User;
 import com.ruangkerja.rest.repository.CompanyRepository;
 import com.ruangkerja.rest.repository.CandidateRepository;
 import com.ruangkerja.rest.repository.UserRepository;
+import com.ruangkerja.rest.service.ImageVariantService;
+import com.ruangkerja.rest.service.LocationDictionaryService;
+import com.ruangkerja.rest.service.SearchIndexService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.ConstraintViolation;
@@ -51,6 +54,9 @@ public class CompanyController {
     private final CompanyRepository companyRepository;
     private final UserRepository userRepository;
     private final CandidateRepository candidateRepository;
+    private final SearchIndexService searchIndexService;
+    private final LocationDictionaryService locationDictionaryService;
+    private final ImageVariantService imageVariantService;
 
     @Value("${app.upload.dir:uploads/images/}")
     private String uploadDir;
@@ -134,6 +140,8 @@ public class CompanyController {
             company.setCompanyType(companyForm.getCompanyType());
 
             Company saved = companyRepository.save(company);
+            searchIndexService.indexCompany(saved);
+            locationDictionaryService.invalidateCompanies();
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
             response.put(COMPANY_KEY, saved);
@@ -195,13 +203,7 @@ public class CompanyController {
     @GetMapping("/provinces")
     public ResponseEntity<Map<String, Object>> getProvinces() {
         try {
-            List<String> provinces = companyRepository.findAll()
-                .stream()
-                .map(Company::getProvince)
-                .filter(Objects::nonNull)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+            List<String> provinces = locationDictionaryService.getCompanyProvinces();
 
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
@@ -216,13 +218,7 @@ public class CompanyController {
     @GetMapping("/cities/{province}")
     public ResponseEntity<Map<String, Object>> getCitiesByProvince(@PathVariable String province) {
         try {
-            List<String> cities = companyRepository.findByProvince(province)
-                .stream()
-                .map(Company::getCity)
-                .filter(Objects::nonNull)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+            List<String> cities = locationDictionaryService.getCompanyCities(province);
 
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
@@ -339,6 +335,8 @@ public class CompanyController {
             }
 
             Company updated = companyRepository.save(toUpdate);
+            searchIndexService.indexCompany(updated);
+            locationDictionaryService.invalidateCompanies();
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
             response.put(COMPANY_KEY, updated);
@@ -364,6 +362,8 @@ public class CompanyController {
         }
         try {
             companyRepository.deleteById(id);
+            searchIndexService.removeCompany(id);
+            locationDictionaryService.invalidateCompanies();
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
             response.put(MESSAGE_KEY, "Company deleted successfully");
@@ -420,6 +420,7 @@ public class CompanyController {
             }
             Path targetLocation = uploadPath.resolve(uniqueFilename);
             Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            imageVariantService.generateVariants(targetLocation);
             String imageUrl = "/api/v1/images/" + uniqueFilename;
             company.setProfileImageUrl(imageUrl);
             company.setProfileImagePath(targetLocation.toString());
@@ -495,6 +496,7 @@ public class CompanyController {
         try {
             company.setDescription(description.trim());
             companyRepository.save(company);
+            searchIndexService.indexCompany(company);
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
             response.put(MESSAGE_KEY, "Description updated successfully");
@@ -685,6 +687,7 @@ public class CompanyController {
     private void deleteOldProfileImage(String imagePath) {
         try {
             Path path = Paths.get(imagePath);
+            imageVariantService.deleteVariants(path);
             Files.deleteIfExists(path);
         } catch (IOException ex) {
             // log error if needed
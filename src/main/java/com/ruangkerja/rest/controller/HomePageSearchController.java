@@ -1,11 +1,9 @@
 package com.ruangkerja.rest.controller;
 
-import com.ruangkerja.rest.entity.Company;
-import com.ruangkerja.rest.entity.Candidate;
-import com.ruangkerja.rest.entity.Skill;
-import com.ruangkerja.rest.repository.CompanyRepository;
-import com.ruangkerja.rest.repository.CandidateRepository;
+import com.ruangkerja.rest.service.SearchIndexService;
+import com.ruangkerja.rest.service.SearchSuggestService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
@@ -15,68 +13,38 @@ import java.util.*;
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class HomePageSearchController {
-    private final CompanyRepository companyRepository;
-    private final CandidateRepository candidateRepository;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_SEARCH_LIMIT = 100;
 
-    @GetMapping("/search")
-    public List<Map<String, Object>> searchAll(@RequestParam String query) {
-        List<Map<String, Object>> results = new ArrayList<>();
-        String q = query.toLowerCase();
-
-        // Search Company
-        for (Company c : companyRepository.findAll()) {
-            boolean match =
-                (c.getCompanyName() != null && c.getCompanyName().toLowerCase().contains(q)) ||
-                (c.getIndustry() != null && c.getIndustry().toLowerCase().contains(q)) ||
-                (c.getHq() != null && c.getHq().toLowerCase().contains(q)) ||
-                (c.getDescription() != null && c.getDescription().toLowerCase().contains(q)) ||
-                (c.getEmail() != null && c.getEmail().toLowerCase().contains(q)) ||
-                (c.getCompanySize() != null && String.valueOf(c.getCompanySize()).contains(q)) ||
-                (c.getFoundationDate() != null && c.getFoundationDate().toString().contains(q));
-            // Tambahkan field lain jika ada
+    private final SearchIndexService searchIndexService;
+    private final SearchSuggestService searchSuggestService;
 
-            if (match) {
-                Map<String, Object> map = new HashMap<>();
-                map.put("id", c.getId());
-                map.put("name", c.getCompanyName());
-                map.put("location", c.getHq()); // <-- pastikan ada
-                map.put("type", "company");
-                results.add(map);
-            }
+    // Served from the in-memory index, kept in sync by the company/candidate/skill controllers.
+    // Results are ranked by relevance; pass the X-Next-Cursor header back as `cursor` for the next page.
+    @GetMapping("/search")
+    public ResponseEntity<List<Map<String, Object>>> searchAll(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        SearchIndexService.SearchPage page;
+        try {
+            page = searchIndexService.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT)), cursor);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
         }
 
-        // Search Candidate
-        for (Candidate cand : candidateRepository.findAll()) {
-            boolean skillMatch = false;
-            if (cand.getSkill() != null) {
-                for (Skill skill : cand.getSkill()) {
-                    if (skill != null && skill.getName() != null && skill.getName().toLowerCase().contains(q)) {
-                        skillMatch = true;
-                        break;
-                    }
-                }
-            }
-            boolean match =
-                (cand.getFullName() != null && cand.getFullName().toLowerCase().contains(q)) ||
-                (cand.getBiodata() != null && cand.getBiodata().toLowerCase().contains(q)) ||
-                (cand.getEmail() != null && cand.getEmail().toLowerCase().contains(q)) ||
-                (cand.getCity() != null && cand.getCity().toLowerCase().contains(q)) ||
-                (cand.getJobType() != null && cand.getJobType().toLowerCase().contains(q)) ||
-                (cand.getIndustry() != null && cand.getIndustry().toLowerCase().contains(q)) ||
-                (cand.getEmploymentStatus() != null && cand.getEmploymentStatus().toLowerCase().contains(q)) ||
-                skillMatch;
-            // Tambahkan field lain jika ada
-
-            if (match) {
-                Map<String, Object> map = new HashMap<>();
-                map.put("id", cand.getId());
-                map.put("fullName", cand.getFullName());
-                map.put("city", cand.getCity()); // <-- pastikan ada
-                map.put("type", "candidate");
-                results.add(map);
-            }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
         }
+        return response.body(page.getResults());
+    }
 
-        return results;
+    // Autocomplete for the search box: most popular names, industries, cities and skills for a prefix
+    @GetMapping("/search/suggest")
+    public List<Map<String, Object>> suggest(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "8") int limit) {
+        return searchSuggestService.suggest(query, limit);
     }
 }
@@ -1,5 +1,6 @@
 package com.ruangkerja.rest.controller;
 
+import com.ruangkerja.rest.service.ImageVariantService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
@@ -21,13 +22,23 @@ import java.nio.file.Paths;
 @CrossOrigin(origins = "*")
 public class ImageController {
 
+    private final ImageVariantService imageVariantService;
+
     @Value("${app.upload.dir:uploads/images/}")
     private String uploadDir;
 
+    // ?w= asks for an image at least that many pixels wide; a smaller JPEG variant is served when one exists
     @GetMapping("/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
+    public ResponseEntity<Resource> serveFile(@PathVariable String filename,
+                                              @RequestParam(value = "w", required = false) Integer width) {
+        if (width != null && width <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
             Path file = Paths.get(uploadDir).resolve(filename);
+            if (width != null) {
+                file = imageVariantService.resolve(file, width);
+            }
             Resource resource = new UrlResource(file.toUri());
 
             if (resource.exists() || resource.isReadable()) {
@@ -9,6 +9,7 @@ import com.ruangkerja.rest.entity.User;
 import com.ruangkerja.rest.repository.CompanyRepository;
 import com.ruangkerja.rest.repository.JobRepository;
 import com.ruangkerja.rest.repository.UserRepository;
+import com.ruangkerja.rest.service.JobSearchService;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.data.domain.Page;
@@ -33,10 +34,14 @@ import java.util.Arrays;
 @CrossOrigin(origins = "*")
 @Tag(name = "Job API", description = "API endpoints for managing job postings")
 public class JobController {
+
+    // Upper bound for one page of the jobs feed, in both offset and cursor mode
+    private static final int MAX_PAGE_SIZE = 100;
     
     private final JobRepository jobRepository;
     private final CompanyRepository companyRepository;
     private final UserRepository userRepository;
+    private final JobSearchService jobSearchService;
     
     @Operation(summary = "Create job posting", description = "Creates a new job posting (companies only)")
     @PostMapping
@@ -108,7 +113,8 @@ public class JobController {
         }
     }
     
-    @Operation(summary = "Get all jobs", description = "Retrieves all active job postings with optional filters")
+    @Operation(summary = "Get all jobs", description = "Retrieves all active job postings with optional filters. "
+            + "Pass `cursor` (empty for the first page, then the returned nextCursor) for keyset pagination without total counts")
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllJobs(
             @RequestParam(defaultValue = "0") int page,
@@ -116,19 +122,17 @@ public class JobController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String province,
-            @RequestParam(required = false) String city) {
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String cursor) {
+        
+        size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        if (cursor != null) {
+            return getJobsByCursor(search, type, province, city, cursor, size);
+        }
         
         try {
-            Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-            
-            Page<Job> jobs;
-            
-            // Apply filters based on parameters
-            if (hasFilters(search, type, province, city)) {
-                jobs = jobRepository.findActiveJobsWithFilters(search, type, province, city, pageable);
-            } else {
-                jobs = jobRepository.findActiveJobs(pageable);
-            }
+            // Keyword searches go through the FULLTEXT index when it can answer them
+            Page<Job> jobs = jobSearchService.findActiveJobs(search, type, province, city, page, size);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -145,6 +149,7 @@ public class JobController {
             appliedFilters.put("province", province);
             appliedFilters.put("city", city);
             response.put("appliedFilters", appliedFilters);
+            response.put("searchMode", jobSearchService.searchMode(search));
             
             return ResponseEntity.ok(response);
             
@@ -156,6 +161,54 @@ public class JobController {
         }
     }
     
+    @Operation(summary = "Get job filter counts", description = "Counts active jobs per type, province, city and salary bucket for the current search and filters")
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getJobFacets(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String province,
+            @RequestParam(required = false) String city) {
+        
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("facets", jobSearchService.countFacets(search, type, province, city));
+            response.put("searchMode", jobSearchService.searchMode(search));
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to fetch job facets: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+    
+    private ResponseEntity<Map<String, Object>> getJobsByCursor(
+            String search, String type, String province, String city, String cursor, int size) {
+        try {
+            JobSearchService.JobSlice slice = jobSearchService.findActiveJobsAfter(
+                search, type, province, city, cursor, size);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("jobs", slice.getJobs().stream().map(this::convertToDTO).toList());
+            response.put("nextCursor", slice.getNextCursor());
+            response.put("hasNext", slice.getNextCursor() != null);
+            response.put("pageSize", size);
+            response.put("searchMode", jobSearchService.searchMode(search));
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            return error("InvalidCursor", e.getMessage());
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to fetch jobs: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+    
     @Operation(summary = "Get jobs by company", description = "Retrieves jobs posted by a specific company")
     @GetMapping("/company/{companyId}")
     public ResponseEntity<Map<String, Object>> getJobsByCompany(
@@ -351,11 +404,4 @@ public class JobController {
         response.put("message", message);
         return ResponseEntity.badRequest().body(response);
     }
-
-    private boolean hasFilters(String search, String type, String province, String city) {
-        return (search != null && !search.trim().isEmpty()) ||
-               (type != null && !type.trim().isEmpty()) ||
-               (province != null && !province.trim().isEmpty()) ||
-               (city != null && !city.trim().isEmpty());
-    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.ruangkerja.rest.entity.Candidate;
 import com.ruangkerja.rest.entity.Portfolio;
 import com.ruangkerja.rest.repository.CandidateRepository;
 import com.ruangkerja.rest.repository.PortfolioRepository;
+import com.ruangkerja.rest.service.ImageVariantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -54,6 +55,7 @@ public class PortfolioController {
     
     private final PortfolioRepository portfolioRepository;
     private final CandidateRepository candidateRepository;
+    private final ImageVariantService imageVariantService;
 
     // Use the same upload directory as CandidateController
     @Value("${app.upload.dir:uploads/images/}")
@@ -389,6 +391,8 @@ public class PortfolioController {
                 if (Math.abs(savedFileSize - file.getSize()) > 1000) { // Allow small difference for metadata
                     logger.warn("Significant file size difference detected");
                 }
+
+                imageVariantService.generateVariants(targetLocation);
                 
             } catch (IOException e) {
                 logger.error("Failed to save file to: {}", targetLocation.toAbsolutePath(), e);
@@ -420,8 +424,9 @@ public class PortfolioController {
             } catch (Exception e) {
                 logger.error("Failed to update portfolio in database", e);
                 
-                // Clean up uploaded file since DB update failed
+                // Clean up uploaded file and its variants since DB update failed
                 try {
+                    imageVariantService.deleteVariants(targetLocation);
                     Files.deleteIfExists(targetLocation);
                     logger.info("Cleaned up uploaded file due to database error");
                 } catch (IOException cleanupEx) {
@@ -635,6 +640,7 @@ public class PortfolioController {
                 
                 logger.info("Attempting to delete file: {}", imagePath.toAbsolutePath());
                 
+                imageVariantService.deleteVariants(imagePath);
                 if (Files.exists(imagePath)) {
                     Files.delete(imagePath);
                     logger.info("Successfully deleted old portfolio image: {}", filename);
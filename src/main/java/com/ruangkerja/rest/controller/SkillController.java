@@ -5,6 +5,7 @@ import com.ruangkerja.rest.entity.Skill;
 import com.ruangkerja.rest.entity.Candidate;
 import com.ruangkerja.rest.repository.SkillRepository;
 import com.ruangkerja.rest.repository.CandidateRepository;
+import com.ruangkerja.rest.service.SearchIndexService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -36,6 +37,7 @@ public class SkillController {
 
     private final SkillRepository skillRepository;
     private final CandidateRepository candidateRepository;
+    private final SearchIndexService searchIndexService;
     
     @PostMapping
     @Operation(summary = "Add skill to candidate", description = "Add a new skill to a candidate or associate existing skill")
@@ -78,6 +80,7 @@ public class SkillController {
             // Add skill to candidate
             candidate.getSkill().add(skill);
             candidateRepository.save(candidate);
+            searchIndexService.indexCandidate(candidate);
 
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
@@ -156,6 +159,7 @@ public class SkillController {
             // Remove skill from candidate
             candidate.getSkill().remove(skill);
             candidateRepository.save(candidate);
+            searchIndexService.indexCandidate(candidate);
 
             Map<String, Object> response = new HashMap<>();
             response.put(SUCCESS_KEY, true);
@@ -1,10 +1,11 @@
 package com.ruangkerja.rest.controller;
 
 import com.ruangkerja.rest.dto.ChatMessageWebSocketDto;
+import com.ruangkerja.rest.service.ReadReceiptService;
+import com.ruangkerja.rest.service.TypingIndicatorService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
@@ -13,37 +14,34 @@ import java.security.Principal;
 public class WebSocketChatController {
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private TypingIndicatorService typingIndicatorService;
 
+    @Autowired
+    private ReadReceiptService readReceiptService;
+
+    // Typing frames are coalesced; the receiver gets state changes on /user/queue/typing
     @MessageMapping("/chat.typing")
-    public void handleTyping(@Payload ChatMessageWebSocketDto message, Principal principal) {
-        // Add logging to debug
-        System.out.println("Received typing indicator from: " + message.getSenderId() + " to: " + message.getReceiverId());
-        System.out.println("Principal: " + (principal != null ? principal.getName() : "null"));
-        
-        // Broadcast typing indicator to receiver using the receiver's user ID as the principal name
-        message.setType("typing");
-        messagingTemplate.convertAndSendToUser(
-            message.getReceiverId().toString(),
-            "/queue/typing",
-            message
-        );
-        
-        System.out.println("Sent typing indicator to user: " + message.getReceiverId());
+    public void handleTyping(@Payload ChatMessageWebSocketDto message) {
+        typingIndicatorService.onTyping(message);
     }
 
     @MessageMapping("/chat.stopTyping")
-    public void handleStopTyping(@Payload ChatMessageWebSocketDto message, Principal principal) {
-        System.out.println("Received stop typing indicator from: " + message.getSenderId() + " to: " + message.getReceiverId());
-        
-        // Broadcast stop typing indicator to receiver
-        message.setType("stopTyping");
-        messagingTemplate.convertAndSendToUser(
-            message.getReceiverId().toString(),
-            "/queue/typing",
-            message
-        );
-        
-        System.out.println("Sent stop typing indicator to user: " + message.getReceiverId());
+    public void handleStopTyping(@Payload ChatMessageWebSocketDto message) {
+        typingIndicatorService.onStopTyping(message);
+    }
+
+    // id = newest message read (omit for "everything"), receiverId = the partner whose messages
+    // were read; the partner gets a coalesced receipt on /user/queue/receipts
+    @MessageMapping("/chat.read")
+    public void handleRead(@Payload ChatMessageWebSocketDto message, Principal principal) {
+        Long readerId = message.getSenderId();
+        if (principal != null) {
+            try {
+                readerId = Long.valueOf(principal.getName());
+            } catch (NumberFormatException e) {
+                // Anonymous session; fall back to the id in the frame
+            }
+        }
+        readReceiptService.markRead(readerId, message.getReceiverId(), message.getId());
     }
-}
\ No newline at end of file
+}
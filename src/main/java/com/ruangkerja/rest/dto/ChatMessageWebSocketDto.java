@@ -11,6 +11,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ChatMessageWebSocketDto {
     private Long id;
+    private String clientMessageId; // sender's id for the message, also echoed in the send acknowledgement
     private String content;
     private Long senderId;
     private String senderName;
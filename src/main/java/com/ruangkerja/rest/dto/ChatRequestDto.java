@@ -11,5 +11,8 @@ import java.util.List;
 @AllArgsConstructor
 public class ChatRequestDto {
     private String message;
+    // Server-side session to continue; omit to start one. Replaces conversationHistory.
+    private String sessionId;
+    // Only used by clients without a session
     private List<ChatMessageDto> conversationHistory;
 }
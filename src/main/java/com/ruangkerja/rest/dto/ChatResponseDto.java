@@ -11,9 +11,16 @@ public class ChatResponseDto {
     private boolean success;
     private String message;
     private String error;
+    private String sessionId;
 
     public ChatResponseDto(boolean success, String message) {
         this.success = success;
         this.message = message;
     }
+
+    public ChatResponseDto(boolean success, String message, String error) {
+        this.success = success;
+        this.message = message;
+        this.error = error;
+    }
 }
@@ -0,0 +1,18 @@
+package com.ruangkerja.rest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatSendAckDto {
+    private String clientMessageId;
+    private Long messageId;      // null unless status is "persisted"
+    private Long conversationId;
+    private String status;       // "queued", "persisted", "failed"
+    private LocalDateTime createdAt;
+}
@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class MessageDto {
     private Long id;
+    private String clientMessageId; // optional, echoed back in the send acknowledgement
     private Long conversationId;
     private User sender;        // Use User entity directly
     private User receiver;      // Use User entity directly
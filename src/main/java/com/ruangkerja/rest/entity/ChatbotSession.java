@@ -0,0 +1,34 @@
+package com.ruangkerja.rest.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+// Persisted copy of a chatbot session's history, only written when app.chatbot.session.persist is on
+@Entity
+@Table(name = "chatbot_sessions",
+       indexes = {
+           @Index(name = "idx_chatbot_session_updated", columnList = "updated_at")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatbotSession {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    // JSON array of {role, content}, oldest first
+    @Lob
+    @Column(name = "history", nullable = false, length = 16777215)
+    @ToString.Exclude
+    private String history;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -41,6 +41,13 @@ public class Conversation {
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private Message lastMessage;
 
+    // Read receipts: newest message id each participant has read (high-water marks)
+    @Column(name = "user1_last_read_message_id")
+    private Long user1LastReadMessageId;
+
+    @Column(name = "user2_last_read_message_id")
+    private Long user2LastReadMessageId;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
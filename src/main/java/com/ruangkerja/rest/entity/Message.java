@@ -6,13 +6,24 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages",
+       indexes = {
+           @Index(name = "idx_messages_receiver_read_sender", columnList = "receiver_id, is_read, sender_id"),
+           @Index(name = "idx_messages_conversation_created_id", columnList = "conversation_id, created_at, id")
+       },
+       uniqueConstraints = {
+           // Makes chat send retries idempotent; see ChatSendPipeline
+           @UniqueConstraint(name = "uk_messages_sender_client_message", columnNames = {"sender_id", "client_message_id"})
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,13 +50,27 @@ public class Message {
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private User receiver;
 
+    // Nullable only for rows written before the column existed; see MessageConversationBackfill
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conversation_id", foreignKey = @ForeignKey(name = "fk_message_conversation"))
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Conversation conversation;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "message_type", nullable = false)
     private MessageType messageType = MessageType.TEXT;
 
-    @Column(name = "is_read", nullable = false)
+    // Only set in the database on rows read before read receipt marks existed. Reads fill it in
+    // from the receiver's mark (see ChatHistoryService), so it is never written back on update.
+    @Column(name = "is_read", nullable = false, updatable = false)
     private Boolean isRead = Boolean.FALSE;
 
+    // Sender-chosen id of a message sent through ChatSendPipeline; null for other messages
+    @Column(name = "client_message_id", length = 64)
+    private String clientMessageId;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
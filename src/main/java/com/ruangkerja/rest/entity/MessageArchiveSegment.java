@@ -0,0 +1,69 @@
+package com.ruangkerja.rest.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+// A run of archived messages of one conversation, oldest first, stored compressed in payload.
+// Segments of a conversation never overlap: (first_created_at, first_message_id) to
+// (last_created_at, last_message_id) is the range they cover in thread order.
+@Entity
+@Table(name = "message_archive_segments",
+       indexes = {
+           @Index(name = "idx_archive_conversation_last", columnList = "conversation_id, last_created_at, last_message_id")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageArchiveSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conversation_id", nullable = false, foreignKey = @ForeignKey(name = "fk_archive_conversation"))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Conversation conversation;
+
+    @Column(name = "first_message_id", nullable = false)
+    private Long firstMessageId;
+
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+
+    @Column(name = "first_created_at", nullable = false)
+    private LocalDateTime firstCreatedAt;
+
+    @Column(name = "last_created_at", nullable = false)
+    private LocalDateTime lastCreatedAt;
+
+    // Lowest and highest message id in the segment, for finding an archived message by id
+    @Column(name = "min_message_id", nullable = false)
+    private Long minMessageId;
+
+    @Column(name = "max_message_id", nullable = false)
+    private Long maxMessageId;
+
+    @Column(name = "message_count", nullable = false)
+    private Integer messageCount;
+
+    @Lob
+    @Column(name = "payload", nullable = false, length = 16777215)
+    @ToString.Exclude
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
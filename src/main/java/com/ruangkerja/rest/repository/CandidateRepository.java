@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +14,8 @@ import java.util.Optional;
 public interface CandidateRepository extends JpaRepository<Candidate, Long> {
     
     Optional<Candidate> findByUserId(Long userId);
+
+    List<Candidate> findByUserIdIn(Collection<Long> userIds);
     
     boolean existsByUserId(Long userId);
     
@@ -23,4 +26,15 @@ public interface CandidateRepository extends JpaRepository<Candidate, Long> {
     List<Candidate> findByEmployerCompanyId(Long companyId);
 
     List<Candidate> findByIsActiveEmployee(Boolean isActive);
+
+    // Location dropdown values without loading whole profiles
+    @Query("SELECT DISTINCT c.province FROM Candidate c WHERE c.province IS NOT NULL ORDER BY c.province")
+    List<String> findDistinctProvinces();
+
+    @Query("SELECT DISTINCT c.city FROM Candidate c WHERE c.province = :province AND c.city IS NOT NULL ORDER BY c.city")
+    List<String> findDistinctCitiesByProvince(@Param("province") String province);
+
+    // Used to build the search index without loading each candidate's skills separately
+    @Query("SELECT DISTINCT c FROM Candidate c LEFT JOIN FETCH c.skill")
+    List<Candidate> findAllWithSkills();
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.ruangkerja.rest.repository;
+
+import com.ruangkerja.rest.entity.ChatbotSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ChatbotSessionRepository extends JpaRepository<ChatbotSession, String> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChatbotSession s WHERE s.updatedAt < :cutoff")
+    int deleteByUpdatedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+}
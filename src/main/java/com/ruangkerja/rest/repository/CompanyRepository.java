@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +16,8 @@ import java.util.Optional;
 public interface CompanyRepository extends JpaRepository<Company, Long> {
     
     Optional<Company> findByUserId(Long userId);
+
+    List<Company> findByUserIdIn(Collection<Long> userIds);
     boolean existsByUserId(Long userId);
     
     // Filtering methods for companies.html
@@ -43,6 +46,13 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
         Pageable pageable
     );
     
+    // Location dropdown values without loading whole profiles
+    @Query("SELECT DISTINCT c.province FROM Company c WHERE c.province IS NOT NULL ORDER BY c.province")
+    List<String> findDistinctProvinces();
+
+    @Query("SELECT DISTINCT c.city FROM Company c WHERE c.province = :province AND c.city IS NOT NULL ORDER BY c.city")
+    List<String> findDistinctCitiesByProvince(@Param("province") String province);
+    
     // Get companies by size range
     @Query("SELECT c FROM Company c WHERE c.companySize BETWEEN :minSize AND :maxSize")
     List<Company> findByCompanySizeBetween(@Param("minSize") Integer minSize, @Param("maxSize") Integer maxSize);
@@ -2,10 +2,13 @@ package com.ruangkerja.rest.repository;
 
 import com.ruangkerja.rest.entity.Conversation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +27,32 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
            "ORDER BY c.updatedAt DESC")
     List<Conversation> findConversationsForUser(@Param("userId") Long userId);
 
+    // Inbox listing: participants and last message in the same query
+    @Query("SELECT c FROM Conversation c " +
+           "JOIN FETCH c.user1 JOIN FETCH c.user2 " +
+           "LEFT JOIN FETCH c.lastMessage lm LEFT JOIN FETCH lm.sender " +
+           "WHERE c.user1.id = :userId OR c.user2.id = :userId " +
+           "ORDER BY c.updatedAt DESC")
+    List<Conversation> findConversationsWithParticipantsForUser(@Param("userId") Long userId);
+
+    // Participant id pairs (user1Id, user2Id) of all conversations involving any of the users
+    @Query("SELECT c.user1.id, c.user2.id FROM Conversation c " +
+           "WHERE c.user1.id IN :userIds OR c.user2.id IN :userIds")
+    List<Object[]> findParticipantIdsForUsers(@Param("userIds") Collection<Long> userIds);
+
+    // Advance a participant's read high-water mark; never moves it backwards
+    @Modifying
+    @Transactional
+    @Query("UPDATE Conversation c SET c.user1LastReadMessageId = :messageId WHERE c.id = :conversationId " +
+           "AND (c.user1LastReadMessageId IS NULL OR c.user1LastReadMessageId < :messageId)")
+    int advanceUser1ReadMark(@Param("conversationId") Long conversationId, @Param("messageId") Long messageId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Conversation c SET c.user2LastReadMessageId = :messageId WHERE c.id = :conversationId " +
+           "AND (c.user2LastReadMessageId IS NULL OR c.user2LastReadMessageId < :messageId)")
+    int advanceUser2ReadMark(@Param("conversationId") Long conversationId, @Param("messageId") Long messageId);
+
     // Search conversations by user name
     @Query("SELECT c FROM Conversation c WHERE " +
            "(c.user1.id = :userId AND c.user2.email LIKE %:searchTerm%) OR " +
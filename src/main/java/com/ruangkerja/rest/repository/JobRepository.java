@@ -8,6 +8,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface JobRepository extends JpaRepository<Job, Long> {
     
@@ -37,6 +40,93 @@ public interface JobRepository extends JpaRepository<Job, Long> {
         Pageable pageable
     );
     
+    // FULLTEXT variant of findActiveJobsWithFilters; :search is a MySQL boolean-mode query
+    @Query(value = "SELECT * FROM jobs j WHERE j.status = 'ACTIVE' AND " +
+           "MATCH(j.title, j.description, j.skills) AGAINST (:search IN BOOLEAN MODE) AND " +
+           "(:type IS NULL OR :type = '' OR LOWER(j.type) = LOWER(:type)) AND " +
+           "(:province IS NULL OR :province = '' OR LOWER(j.province) = LOWER(:province)) AND " +
+           "(:city IS NULL OR :city = '' OR LOWER(j.city) = LOWER(:city)) " +
+           "ORDER BY j.created_at DESC",
+           countQuery = "SELECT COUNT(*) FROM jobs j WHERE j.status = 'ACTIVE' AND " +
+           "MATCH(j.title, j.description, j.skills) AGAINST (:search IN BOOLEAN MODE) AND " +
+           "(:type IS NULL OR :type = '' OR LOWER(j.type) = LOWER(:type)) AND " +
+           "(:province IS NULL OR :province = '' OR LOWER(j.province) = LOWER(:province)) AND " +
+           "(:city IS NULL OR :city = '' OR LOWER(j.city) = LOWER(:city))",
+           nativeQuery = true)
+    Page<Job> findActiveJobsByFullText(
+        @Param("search") String search,
+        @Param("type") String type,
+        @Param("province") String province,
+        @Param("city") String city,
+        Pageable pageable
+    );
+    
+    // Keyset (seek) pages of the active jobs feed: rows strictly after the (createdAt, id) cursor,
+    // no OFFSET and no COUNT(*). Pass null cursor values for the first page.
+    @Query("SELECT j FROM Job j WHERE j.status = 'ACTIVE' AND " +
+           "(:search IS NULL OR :search = '' OR " +
+           " LOWER(j.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           " LOWER(j.description) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           " LOWER(j.skills) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
+           "(:type IS NULL OR :type = '' OR LOWER(j.type) = LOWER(:type)) AND " +
+           "(:province IS NULL OR :province = '' OR LOWER(j.province) = LOWER(:province)) AND " +
+           "(:city IS NULL OR :city = '' OR LOWER(j.city) = LOWER(:city)) AND " +
+           "(:afterCreatedAt IS NULL OR j.createdAt < :afterCreatedAt OR " +
+           " (j.createdAt = :afterCreatedAt AND j.id < :afterId)) " +
+           "ORDER BY j.createdAt DESC, j.id DESC LIMIT :limit")
+    List<Job> findActiveJobsAfter(
+        @Param("search") String search,
+        @Param("type") String type,
+        @Param("province") String province,
+        @Param("city") String city,
+        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+        @Param("afterId") Long afterId,
+        @Param("limit") int limit
+    );
+
+    @Query(value = "SELECT * FROM jobs j WHERE j.status = 'ACTIVE' AND " +
+           "MATCH(j.title, j.description, j.skills) AGAINST (:search IN BOOLEAN MODE) AND " +
+           "(:type IS NULL OR :type = '' OR LOWER(j.type) = LOWER(:type)) AND " +
+           "(:province IS NULL OR :province = '' OR LOWER(j.province) = LOWER(:province)) AND " +
+           "(:city IS NULL OR :city = '' OR LOWER(j.city) = LOWER(:city)) AND " +
+           "(:afterCreatedAt IS NULL OR j.created_at < :afterCreatedAt OR " +
+           " (j.created_at = :afterCreatedAt AND j.id < :afterId)) " +
+           "ORDER BY j.created_at DESC, j.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Job> findActiveJobsByFullTextAfter(
+        @Param("search") String search,
+        @Param("type") String type,
+        @Param("province") String province,
+        @Param("city") String city,
+        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+        @Param("afterId") Long afterId,
+        @Param("limit") int limit
+    );
+    
+    // Facet source rows: active jobs matching the keyword, grouped by every facet dimension at once
+    // (type, province, city, salary bucket index, count). Facet counts are summed from these rows.
+    @Query(value = "SELECT j.type, j.province, j.city, " + SALARY_BUCKET_SQL + " AS salary_bucket, COUNT(*) " +
+           "FROM jobs j WHERE j.status = 'ACTIVE' AND " +
+           "(:search IS NULL OR :search = '' OR " +
+           " LOWER(j.title) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           " LOWER(j.description) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           " LOWER(j.skills) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+           "GROUP BY j.type, j.province, j.city, salary_bucket",
+           nativeQuery = true)
+    List<Object[]> countActiveJobFacets(@Param("search") String search);
+
+    @Query(value = "SELECT j.type, j.province, j.city, " + SALARY_BUCKET_SQL + " AS salary_bucket, COUNT(*) " +
+           "FROM jobs j WHERE j.status = 'ACTIVE' AND " +
+           "MATCH(j.title, j.description, j.skills) AGAINST (:search IN BOOLEAN MODE) " +
+           "GROUP BY j.type, j.province, j.city, salary_bucket",
+           nativeQuery = true)
+    List<Object[]> countActiveJobFacetsByFullText(@Param("search") String search);
+
+    // Bucket index by minimum salary (IDR): -1 unspecified, 0 below 5M, 1 5-10M, 2 10-20M, 3 20M and up
+    String SALARY_BUCKET_SQL = "CASE WHEN j.salary_min IS NULL THEN -1 " +
+           "WHEN j.salary_min < 5000000 THEN 0 WHEN j.salary_min < 10000000 THEN 1 " +
+           "WHEN j.salary_min < 20000000 THEN 2 ELSE 3 END";
+    
     // Existing methods
     @Query("SELECT j FROM Job j WHERE j.company.id = :companyId AND j.status = :status ORDER BY j.createdAt DESC")
     Page<Job> findByCompanyIdAndStatus(@Param("companyId") Long companyId, @Param("status") String status, Pageable pageable);
@@ -0,0 +1,48 @@
+package com.ruangkerja.rest.repository;
+
+import com.ruangkerja.rest.entity.MessageArchiveSegment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MessageArchiveSegmentRepository extends JpaRepository<MessageArchiveSegment, Long> {
+
+    // Segments starting before the cursor, newest first. A null cursor starts from the newest segment.
+    @Query("SELECT s FROM MessageArchiveSegment s WHERE s.conversation.id = :conversationId AND " +
+           "(:beforeCreatedAt IS NULL OR s.firstCreatedAt < :beforeCreatedAt OR " +
+           " (s.firstCreatedAt = :beforeCreatedAt AND s.firstMessageId < :beforeId)) " +
+           "ORDER BY s.lastCreatedAt DESC, s.lastMessageId DESC")
+    List<MessageArchiveSegment> findSegmentsBefore(@Param("conversationId") Long conversationId,
+                                                   @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                                   @Param("beforeId") Long beforeId,
+                                                   Pageable pageable);
+
+    // Segments ending after the cursor, oldest first
+    @Query("SELECT s FROM MessageArchiveSegment s WHERE s.conversation.id = :conversationId AND " +
+           "(s.lastCreatedAt > :afterCreatedAt OR (s.lastCreatedAt = :afterCreatedAt AND s.lastMessageId > :afterId)) " +
+           "ORDER BY s.lastCreatedAt ASC, s.lastMessageId ASC")
+    List<MessageArchiveSegment> findSegmentsAfter(@Param("conversationId") Long conversationId,
+                                                  @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+
+    // (segmentId, messageCount) of every segment of a conversation, oldest first; no payloads
+    @Query("SELECT s.id, s.messageCount FROM MessageArchiveSegment s WHERE s.conversation.id = :conversationId " +
+           "ORDER BY s.lastCreatedAt ASC, s.lastMessageId ASC")
+    List<Object[]> findSegmentSizes(@Param("conversationId") Long conversationId);
+
+    // Segments that may hold the given message id
+    @Query("SELECT s FROM MessageArchiveSegment s WHERE s.conversation.id = :conversationId " +
+           "AND s.minMessageId <= :messageId AND s.maxMessageId >= :messageId")
+    List<MessageArchiveSegment> findSegmentsSpanning(@Param("conversationId") Long conversationId,
+                                                     @Param("messageId") Long messageId);
+
+    @Query("SELECT COALESCE(SUM(s.messageCount), 0) FROM MessageArchiveSegment s WHERE s.conversation.id = :conversationId")
+    long countArchivedMessages(@Param("conversationId") Long conversationId);
+}
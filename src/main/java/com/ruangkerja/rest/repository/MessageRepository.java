@@ -10,42 +10,82 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
-    // Find messages between two users with pagination
-    @Query("SELECT m FROM Message m WHERE " +
-           "(m.sender.id = :user1Id AND m.receiver.id = :user2Id) OR " +
-           "(m.sender.id = :user2Id AND m.receiver.id = :user1Id) " +
-           "ORDER BY m.createdAt ASC")
-    Page<Message> findMessagesBetweenUsers(@Param("user1Id") Long user1Id, 
-                                          @Param("user2Id") Long user2Id, 
-                                          Pageable pageable);
-
-    // Find latest message between two users
-    @Query("SELECT m FROM Message m WHERE " +
-           "(m.sender.id = :user1Id AND m.receiver.id = :user2Id) OR " +
-           "(m.sender.id = :user2Id AND m.receiver.id = :user1Id) " +
-           "ORDER BY m.createdAt DESC")
-    List<Message> findLatestMessageBetweenUsers(@Param("user1Id") Long user1Id, 
-                                               @Param("user2Id") Long user2Id, 
-                                               Pageable pageable);
-
-    // Count unread messages for a user from another user
-    @Query("SELECT COUNT(m) FROM Message m WHERE m.receiver.id = :receiverId " +
-           "AND m.sender.id = :senderId AND m.isRead = false")
-    Long countUnreadMessages(@Param("receiverId") Long receiverId, 
-                            @Param("senderId") Long senderId);
-
-    // Mark messages as read
+    // Messages of a conversation, oldest first, with pagination
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId " +
+           "ORDER BY m.createdAt ASC, m.id ASC")
+    Page<Message> findConversationMessages(@Param("conversationId") Long conversationId,
+                                           Pageable pageable);
+
+    // Keyset windows over a conversation, served by idx_messages_conversation_created_id.
+    // A null cursor starts from the newest message.
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId AND " +
+           "(:beforeCreatedAt IS NULL OR m.createdAt < :beforeCreatedAt OR " +
+           " (m.createdAt = :beforeCreatedAt AND m.id < :beforeId)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC LIMIT :limit")
+    List<Message> findConversationMessagesBefore(@Param("conversationId") Long conversationId,
+                                                 @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                                 @Param("beforeId") Long beforeId,
+                                                 @Param("limit") int limit);
+
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId AND " +
+           "(m.createdAt > :afterCreatedAt OR (m.createdAt = :afterCreatedAt AND m.id > :afterId)) " +
+           "ORDER BY m.createdAt ASC, m.id ASC LIMIT :limit")
+    List<Message> findConversationMessagesAfter(@Param("conversationId") Long conversationId,
+                                                @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                @Param("afterId") Long afterId,
+                                                @Param("limit") int limit);
+
+    // Page of a conversation by offset, oldest first; used when archived messages precede the hot ones
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId " +
+           "ORDER BY m.createdAt ASC, m.id ASC LIMIT :limit OFFSET :offset")
+    List<Message> findConversationMessagesFrom(@Param("conversationId") Long conversationId,
+                                               @Param("offset") long offset,
+                                               @Param("limit") int limit);
+
+    long countByConversationId(Long conversationId);
+
+    // Oldest messages of a conversation created before the cutoff, for archiving. The
+    // conversation's last message is left in place because conversations reference it.
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId AND m.createdAt < :cutoff " +
+           "AND m.id <> :excludeId ORDER BY m.createdAt ASC, m.id ASC LIMIT :limit")
+    List<Message> findArchivableMessages(@Param("conversationId") Long conversationId,
+                                         @Param("cutoff") LocalDateTime cutoff,
+                                         @Param("excludeId") Long excludeId,
+                                         @Param("limit") int limit);
+
     @Modifying
     @Transactional
-    @Query("UPDATE Message m SET m.isRead = true WHERE m.receiver.id = :receiverId " +
-           "AND m.sender.id = :senderId AND m.isRead = false")
-    void markMessagesAsRead(@Param("receiverId") Long receiverId, 
-                           @Param("senderId") Long senderId);
+    @Query("DELETE FROM Message m WHERE m.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // Next conversations (by id) having messages created before the cutoff
+    @Query("SELECT c.id FROM Conversation c WHERE c.id > :afterId AND EXISTS " +
+           "(SELECT 1 FROM Message m WHERE m.conversation = c AND m.createdAt < :cutoff) " +
+           "ORDER BY c.id LIMIT :limit")
+    List<Long> findConversationsWithMessagesBefore(@Param("cutoff") LocalDateTime cutoff,
+                                                   @Param("afterId") Long afterId,
+                                                   @Param("limit") int limit);
+
+    // Find latest message of a conversation
+    @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findLatestConversationMessages(@Param("conversationId") Long conversationId,
+                                                 Pageable pageable);
+
+    // Unread messages for a user per sender, one row (senderId, count) per sender. A message is
+    // read once flagged (legacy mark-read) or covered by the receiver's read receipt mark.
+    @Query("SELECT m.sender.id, COUNT(m) FROM Message m JOIN m.conversation c " +
+           "WHERE m.receiver.id = :receiverId AND m.isRead = false AND m.id > COALESCE(" +
+           "CASE WHEN c.user1.id = :receiverId THEN c.user1LastReadMessageId ELSE c.user2LastReadMessageId END, 0) " +
+           "GROUP BY m.sender.id")
+    List<Object[]> countUnreadMessagesBySender(@Param("receiverId") Long receiverId);
 
     // Find all users who have conversations with a specific user
     @Query("SELECT DISTINCT CASE WHEN m.sender.id = :userId THEN m.receiver ELSE m.sender END " +
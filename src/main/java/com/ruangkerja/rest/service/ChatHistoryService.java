@@ -0,0 +1,187 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.entity.Conversation;
+import com.ruangkerja.rest.entity.Message;
+import com.ruangkerja.rest.repository.ConversationRepository;
+import com.ruangkerja.rest.repository.MessageRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads chat history in keyset windows. The first window is the newest messages of the thread,
+ * and older or newer windows are requested with the id of the message at its edge, so reading
+ * the latest messages of a long thread costs the same as reading a short one. Every window is
+ * a single range scan of the (conversation_id, created_at, id) index.
+ *
+ * <p>Archived messages (see {@link MessageArchiveService}) all precede the hot ones of their
+ * thread, so windows and pages continue into the archive once the hot table runs out.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatHistoryService {
+
+    private final MessageRepository messageRepository;
+    private final ConversationRepository conversationRepository;
+    private final MessageArchiveService messageArchiveService;
+
+    /**
+     * Returns up to {@code limit} messages between the two users in chronological order: those
+     * right before {@code beforeId}, right after {@code afterId}, or the newest ones when neither
+     * is given.
+     *
+     * @throws IllegalArgumentException if both cursors are given or a cursor is not a message of this thread
+     */
+    public MessageWindow getMessages(Long user1Id, Long user2Id, Long beforeId, Long afterId, int limit) {
+        if (beforeId != null && afterId != null) {
+            throw new IllegalArgumentException("Use either before or after, not both");
+        }
+
+        Optional<Conversation> conversation = conversationRepository.findConversationBetweenUsers(user1Id, user2Id);
+        if (conversation.isEmpty()) {
+            return new MessageWindow(List.of(), false, false, Map.of());
+        }
+        Long conversationId = conversation.get().getId();
+        Map<Long, Long> lastRead = lastReadMessageIds(conversation.get());
+
+        // Fetching one extra message tells whether the window is the last one
+        if (afterId != null) {
+            Cursor cursor = findCursor(conversation.get(), afterId);
+            List<Message> newer = new ArrayList<>();
+            if (cursor.archived) {
+                newer.addAll(messageArchiveService.findNewer(
+                        conversation.get(), cursor.createdAt, cursor.id, limit + 1));
+            }
+            if (newer.size() <= limit) {
+                newer.addAll(messageRepository.findConversationMessagesAfter(
+                        conversationId, cursor.createdAt, cursor.id, limit + 1 - newer.size()));
+            }
+            boolean hasNewer = newer.size() > limit;
+            List<Message> window = truncate(newer, limit);
+            applyReadState(window, conversation.get());
+            return new MessageWindow(window, true, hasNewer, lastRead);
+        }
+
+        Cursor cursor = beforeId != null ? findCursor(conversation.get(), beforeId) : null;
+        List<Message> older = new ArrayList<>();
+        if (cursor == null || !cursor.archived) {
+            older.addAll(messageRepository.findConversationMessagesBefore(conversationId,
+                    cursor != null ? cursor.createdAt : null, beforeId, limit + 1));
+        }
+        if (older.size() <= limit) {
+            // Continue into the archive from the oldest message seen so far
+            LocalDateTime edgeCreatedAt = cursor != null ? cursor.createdAt : null;
+            Long edgeId = beforeId;
+            if (!older.isEmpty()) {
+                edgeCreatedAt = older.get(older.size() - 1).getCreatedAt();
+                edgeId = older.get(older.size() - 1).getId();
+            }
+            older.addAll(messageArchiveService.findOlder(conversation.get(), edgeCreatedAt, edgeId, limit + 1 - older.size()));
+        }
+        boolean hasOlder = older.size() > limit;
+        List<Message> window = new ArrayList<>(truncate(older, limit));
+        Collections.reverse(window);
+        applyReadState(window, conversation.get());
+        return new MessageWindow(window, hasOlder, beforeId != null, lastRead);
+    }
+
+    /**
+     * Returns a page of the thread between the two users, oldest first, counting archived
+     * messages as part of the thread.
+     */
+    public Page<Message> getPage(Long user1Id, Long user2Id, Pageable pageable) {
+        Optional<Conversation> conversation = conversationRepository.findConversationBetweenUsers(user1Id, user2Id);
+        if (conversation.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Long conversationId = conversation.get().getId();
+        long archived = messageArchiveService.countArchived(conversationId);
+        if (archived == 0) {
+            Page<Message> page = messageRepository.findConversationMessages(conversationId, pageable);
+            applyReadState(page.getContent(), conversation.get());
+            return page;
+        }
+
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+        List<Message> content = new ArrayList<>();
+        if (offset < archived) {
+            content.addAll(messageArchiveService.findRange(conversation.get(), offset, size));
+        }
+        if (content.size() < size) {
+            content.addAll(messageRepository.findConversationMessagesFrom(
+                    conversationId, Math.max(0, offset - archived), size - content.size()));
+        }
+        applyReadState(content, conversation.get());
+        long total = archived + messageRepository.countByConversationId(conversationId);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    // --- Helper Methods ---
+    // Participant id -> read receipt high-water mark, so clients can render read state on load
+    private static Map<Long, Long> lastReadMessageIds(Conversation conversation) {
+        Map<Long, Long> lastRead = new HashMap<>();
+        lastRead.put(conversation.getUser1().getId(), conversation.getUser1LastReadMessageId());
+        lastRead.put(conversation.getUser2().getId(), conversation.getUser2LastReadMessageId());
+        return lastRead;
+    }
+
+    // A message is read once its receiver's read receipt mark covers it
+    private static void applyReadState(List<Message> messages, Conversation conversation) {
+        Long user1Id = conversation.getUser1().getId();
+        for (Message message : messages) {
+            Long mark = user1Id.equals(message.getReceiver().getId())
+                    ? conversation.getUser1LastReadMessageId()
+                    : conversation.getUser2LastReadMessageId();
+            if (mark != null && message.getId() <= mark) {
+                message.setIsRead(true);
+            }
+        }
+    }
+
+    private Cursor findCursor(Conversation conversation, Long messageId) {
+        Optional<Message> hot = messageRepository.findById(messageId);
+        if (hot.isEmpty()) {
+            Message archived = messageArchiveService.findArchived(conversation, messageId)
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown message cursor: " + messageId));
+            return new Cursor(archived.getId(), archived.getCreatedAt(), true);
+        }
+        Message message = hot.get();
+        if (message.getConversation() == null || !conversation.getId().equals(message.getConversation().getId())) {
+            throw new IllegalArgumentException("Message " + messageId + " is not part of this conversation");
+        }
+        return new Cursor(message.getId(), message.getCreatedAt(), false);
+    }
+
+    private static List<Message> truncate(List<Message> messages, int limit) {
+        return messages.size() > limit ? messages.subList(0, limit) : messages;
+    }
+
+    @AllArgsConstructor
+    private static final class Cursor {
+        private final Long id;
+        private final LocalDateTime createdAt;
+        private final boolean archived;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class MessageWindow {
+        private final List<Message> messages;
+        private final boolean hasOlder;
+        private final boolean hasNewer;
+        private final Map<Long, Long> lastReadMessageIds;
+    }
+}
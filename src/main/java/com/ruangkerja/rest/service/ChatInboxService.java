@@ -0,0 +1,164 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.entity.Candidate;
+import com.ruangkerja.rest.entity.Company;
+import com.ruangkerja.rest.entity.Conversation;
+import com.ruangkerja.rest.entity.Message;
+import com.ruangkerja.rest.entity.User;
+import com.ruangkerja.rest.repository.CandidateRepository;
+import com.ruangkerja.rest.repository.CompanyRepository;
+import com.ruangkerja.rest.repository.ConversationRepository;
+import com.ruangkerja.rest.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builds the chat inbox: each conversation with the counterpart's candidate or company profile.
+ * Conversations, participants and last messages come from one fetch-join query and the
+ * counterpart profiles from at most two {@code IN (...)} queries, however many conversations
+ * the user has. Unread counts for every conversation come from one grouped query.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatInboxService {
+
+    private final ConversationRepository conversationRepository;
+    private final CandidateRepository candidateRepository;
+    private final CompanyRepository companyRepository;
+    private final MessageRepository messageRepository;
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getConversations(Long userId) {
+        List<Conversation> conversations = conversationRepository.findConversationsWithParticipantsForUser(userId);
+
+        Map<Long, User> otherUsers = new LinkedHashMap<>();
+        for (Conversation conversation : conversations) {
+            User otherUser = otherUser(conversation, userId);
+            otherUsers.put(otherUser.getId(), otherUser);
+        }
+        Map<Long, Map<String, Object>> profiles = getUserProfiles(otherUsers.values());
+        Map<Long, Long> unreadCounts = otherUsers.isEmpty() ? Map.of() : countUnreadBySender(userId);
+
+        List<Map<String, Object>> result = new ArrayList<>(conversations.size());
+        for (Conversation conversation : conversations) {
+            Map<String, Object> convData = new HashMap<>();
+            convData.put("id", conversation.getId());
+            convData.put("createdAt", conversation.getCreatedAt());
+            convData.put("updatedAt", conversation.getUpdatedAt());
+            Long otherUserId = otherUser(conversation, userId).getId();
+            convData.put("otherUser", profiles.get(otherUserId));
+            convData.put("unreadCount", unreadCounts.getOrDefault(otherUserId, 0L));
+
+            Message lastMessage = conversation.getLastMessage();
+            if (lastMessage != null) {
+                Map<String, Object> lastMsg = new HashMap<>();
+                lastMsg.put("content", lastMessage.getContent());
+                lastMsg.put("createdAt", lastMessage.getCreatedAt());
+                lastMsg.put("senderId", lastMessage.getSender().getId());
+                convData.put("lastMessage", lastMsg);
+            }
+            result.add(convData);
+        }
+        return result;
+    }
+
+    /**
+     * Profile data (candidate or company) for a single user.
+     */
+    public Map<String, Object> getUserProfile(User user) {
+        Optional<Candidate> candidate = candidateRepository.findByUserId(user.getId());
+        if (candidate.isPresent()) {
+            return candidateProfile(user, candidate.get());
+        }
+        Optional<Company> company = companyRepository.findByUserId(user.getId());
+        if (company.isPresent()) {
+            return companyProfile(user, company.get());
+        }
+        return unknownProfile(user);
+    }
+
+    /**
+     * Profile data for several users keyed by user id. A candidate profile wins over a company
+     * profile, as in {@link #getUserProfile}.
+     */
+    public Map<Long, Map<String, Object>> getUserProfiles(Collection<User> users) {
+        Map<Long, Map<String, Object>> profiles = new HashMap<>();
+        if (users.isEmpty()) {
+            return profiles;
+        }
+        Map<Long, User> byId = new HashMap<>();
+        users.forEach(user -> byId.put(user.getId(), user));
+
+        for (Candidate candidate : candidateRepository.findByUserIdIn(byId.keySet())) {
+            Long id = candidate.getUser().getId();
+            profiles.putIfAbsent(id, candidateProfile(byId.get(id), candidate));
+        }
+        List<Long> remaining = byId.keySet().stream().filter(id -> !profiles.containsKey(id)).toList();
+        if (!remaining.isEmpty()) {
+            for (Company company : companyRepository.findByUserIdIn(remaining)) {
+                Long id = company.getUser().getId();
+                profiles.putIfAbsent(id, companyProfile(byId.get(id), company));
+            }
+        }
+        byId.forEach((id, user) -> profiles.computeIfAbsent(id, k -> unknownProfile(user)));
+        return profiles;
+    }
+
+    // --- Helper Methods ---
+    // Messages sent to the user and not yet read, keyed by sender (i.e. by conversation)
+    private Map<Long, Long> countUnreadBySender(Long userId) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : messageRepository.countUnreadMessagesBySender(userId)) {
+            counts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private static User otherUser(Conversation conversation, Long userId) {
+        return conversation.getUser1().getId().equals(userId) ? conversation.getUser2() : conversation.getUser1();
+    }
+
+    private static Map<String, Object> candidateProfile(User user, Candidate c) {
+        Map<String, Object> profileData = baseProfile(user);
+        profileData.put("type", "candidate");
+        profileData.put("fullName", c.getFullName());
+        profileData.put("profileImageUrl", c.getProfileImageUrl());
+        profileData.put("industry", c.getIndustry());
+        profileData.put("city", c.getCity());
+        return profileData;
+    }
+
+    private static Map<String, Object> companyProfile(User user, Company comp) {
+        Map<String, Object> profileData = baseProfile(user);
+        profileData.put("type", "company");
+        profileData.put("fullName", comp.getCompanyName());
+        profileData.put("profileImageUrl", comp.getProfileImageUrl());
+        profileData.put("industry", comp.getIndustry());
+        profileData.put("hq", comp.getHq());
+        return profileData;
+    }
+
+    private static Map<String, Object> unknownProfile(User user) {
+        Map<String, Object> profileData = baseProfile(user);
+        profileData.put("type", "user");
+        profileData.put("fullName", "Unknown User");
+        profileData.put("profileImageUrl", null);
+        return profileData;
+    }
+
+    private static Map<String, Object> baseProfile(User user) {
+        Map<String, Object> profileData = new HashMap<>();
+        profileData.put("userId", user.getId());
+        profileData.put("email", user.getEmail());
+        return profileData;
+    }
+}
@@ -0,0 +1,417 @@
+package com.ruangkerja.rest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ruangkerja.rest.dto.ChatMessageWebSocketDto;
+import com.ruangkerja.rest.dto.ChatSendAckDto;
+import com.ruangkerja.rest.entity.Conversation;
+import com.ruangkerja.rest.entity.Message;
+import com.ruangkerja.rest.entity.User;
+import com.ruangkerja.rest.repository.ConversationRepository;
+import com.ruangkerja.rest.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind pipeline for chat sends. A send is validated and put on a bounded in-memory queue;
+ * a single writer thread persists queued messages in batches (one multi-row insert plus the
+ * conversation updates per transaction). Once a batch commits, each message is pushed to the
+ * receiver's {@code /queue/messages} with its database id and acknowledged to the sender's
+ * {@code /queue/acks}.
+ *
+ * <p>Acknowledgement: a "persisted" ack carrying the database id is only sent after commit. When a
+ * batch keeps failing, its messages are retried one per transaction so that only the rows that
+ * fail on their own get a "failed" ack. A message lost to a crash before its batch commits gets
+ * no ack. In both cases the client should resend with the same {@code clientMessageId}: messages
+ * are unique per (sender, clientMessageId), so a resend of a message that was in fact stored
+ * resolves to the stored row instead of a duplicate.
+ *
+ * <p>Backpressure: when the queue is full, a send waits briefly for room and is then rejected
+ * with {@link QueueFullException} before anything is pushed, so the caller can retry later.
+ */
+@Service
+@Slf4j
+public class ChatSendPipeline {
+
+    public static final String MESSAGES_DESTINATION = "/queue/messages";
+    public static final String ACKS_DESTINATION = "/queue/acks";
+
+    public static final String STATUS_QUEUED = "queued";
+    public static final String STATUS_PERSISTED = "persisted";
+    public static final String STATUS_FAILED = "failed";
+
+    // Mirrors the @Size constraint on Message.content, which JDBC inserts bypass
+    private static final int MAX_CONTENT_LENGTH = 1000;
+    // Mirrors the client_message_id column length
+    private static final int MAX_CLIENT_MESSAGE_ID_LENGTH = 64;
+    private static final int MAX_CACHED_ENTRIES = 10000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO messages (conversation_id, sender_id, receiver_id, content, message_type, is_read, client_message_id, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_CONVERSATION_SQL =
+            "UPDATE conversations SET last_message_id = ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final UserRepository userRepository;
+    private final ConversationRepository conversationRepository;
+    private final ChatInboxService chatInboxService;
+    private final BlockingQueue<PendingMessage> queue;
+
+    @Value("${app.chat.send.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${app.chat.send.flush-interval-ms:20}")
+    private long flushIntervalMs = 20;
+
+    @Value("${app.chat.send.enqueue-timeout-ms:50}")
+    private long enqueueTimeoutMs = 50;
+
+    @Value("${app.chat.send.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    // "smallerUserId:largerUserId" -> conversation id; a pair's conversation never changes
+    private final Cache<String, Long> conversationIds = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_ENTRIES)
+            .build();
+    // Sender name and picture for the push, refreshed after app.chat.send.profile-cache-ttl-seconds
+    private final Cache<Long, Map<String, Object>> senderProfiles;
+
+    private volatile boolean accepting = true;
+    private volatile boolean running;
+    private Thread writer;
+
+    public ChatSendPipeline(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            SimpMessagingTemplate messagingTemplate,
+                            UserRepository userRepository,
+                            ConversationRepository conversationRepository,
+                            ChatInboxService chatInboxService,
+                            @Value("${app.chat.send.queue-capacity:10000}") int queueCapacity,
+                            @Value("${app.chat.send.profile-cache-ttl-seconds:60}") long profileCacheTtlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.messagingTemplate = messagingTemplate;
+        this.userRepository = userRepository;
+        this.conversationRepository = conversationRepository;
+        this.chatInboxService = chatInboxService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.senderProfiles = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_ENTRIES)
+                .expireAfterWrite(Duration.ofSeconds(profileCacheTtlSeconds))
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "chat-send-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Stops taking sends and flushes what is already queued
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        accepting = false;
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Queues a message for persistence; the receiver gets it once it is stored.
+     *
+     * @throws IllegalArgumentException if the content is invalid or a user does not exist
+     * @throws QueueFullException if the queue stays full for the enqueue timeout
+     */
+    public ChatSendAckDto send(Long senderId, Long receiverId, String content, String clientMessageId) {
+        if (content == null || content.isBlank() || content.length() > MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("Content must be between 1 and " + MAX_CONTENT_LENGTH + " characters");
+        }
+        if (clientMessageId != null && clientMessageId.length() > MAX_CLIENT_MESSAGE_ID_LENGTH) {
+            throw new IllegalArgumentException("clientMessageId must be at most " + MAX_CLIENT_MESSAGE_ID_LENGTH + " characters");
+        }
+        Long conversationId = resolveConversation(senderId, receiverId);
+        Map<String, Object> senderProfile = senderProfile(senderId);
+        String clientId = clientMessageId != null && !clientMessageId.isBlank() ? clientMessageId : UUID.randomUUID().toString();
+
+        PendingMessage pending = new PendingMessage(clientId, conversationId, senderId, receiverId, content,
+                LocalDateTime.now(), senderProfile);
+        if (!accepting || !offer(pending)) {
+            throw new QueueFullException("Chat send queue is full");
+        }
+        return new ChatSendAckDto(clientId, null, conversationId, STATUS_QUEUED, pending.createdAt);
+    }
+
+    // --- Helper Methods ---
+    private boolean offer(PendingMessage pending) {
+        try {
+            return queue.offer(pending, enqueueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Long resolveConversation(Long senderId, Long receiverId) {
+        String key = Math.min(senderId, receiverId) + ":" + Math.max(senderId, receiverId);
+        Long cached = conversationIds.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Optional<Conversation> existing = conversationRepository.findConversationBetweenUsers(senderId, receiverId);
+        Long conversationId;
+        if (existing.isPresent()) {
+            conversationId = existing.get().getId();
+        } else {
+            User sender = userRepository.findById(senderId)
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown sender: " + senderId));
+            User receiver = userRepository.findById(receiverId)
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown receiver: " + receiverId));
+            Conversation conversation = new Conversation();
+            conversation.setUser1(sender);
+            conversation.setUser2(receiver);
+            try {
+                conversationId = conversationRepository.save(conversation).getId();
+            } catch (DataIntegrityViolationException e) {
+                // Created concurrently by the other participant
+                conversationId = conversationRepository.findConversationBetweenUsers(senderId, receiverId)
+                        .orElseThrow(() -> e).getId();
+            }
+        }
+        conversationIds.put(key, conversationId);
+        return conversationId;
+    }
+
+    private Map<String, Object> senderProfile(Long senderId) {
+        return senderProfiles.get(senderId, id -> chatInboxService.getUserProfile(userRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown sender: " + id))));
+    }
+
+    private void runWriter() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persist(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Chat send writer failed on a batch of {} messages", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void persist(List<PendingMessage> batch) throws InterruptedException {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                List<Long> ids = transactionTemplate.execute(status -> writeBatch(batch));
+                for (int i = 0; i < batch.size(); i++) {
+                    deliver(batch.get(i), ids.get(i));
+                }
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Persisting {} chat messages failed (attempt {}): {}", batch.size(), attempt, e.getMessage());
+                if (attempt < maxAttempts) {
+                    Thread.sleep(100L * attempt);
+                }
+            }
+        }
+
+        // One bad row must not fail the unrelated messages batched with it
+        for (PendingMessage pending : batch) {
+            try {
+                List<Long> ids = transactionTemplate.execute(status -> writeBatch(List.of(pending)));
+                deliver(pending, ids.get(0));
+            } catch (RuntimeException e) {
+                log.error("Dropping chat message {} from user {}", pending.clientMessageId, pending.senderId, e);
+                acknowledge(pending, null, STATUS_FAILED);
+            }
+        }
+    }
+
+    // Ids in batch order; resent messages that are already stored resolve to their existing row
+    private List<Long> writeBatch(List<PendingMessage> batch) {
+        Map<String, Long> stored = findStored(batch);
+        List<PendingMessage> fresh = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            if (!stored.containsKey(pending.key())) {
+                stored.put(pending.key(), null);
+                fresh.add(pending);
+            }
+        }
+        if (!fresh.isEmpty()) {
+            List<Long> freshIds = insert(fresh);
+            for (int i = 0; i < fresh.size(); i++) {
+                stored.put(fresh.get(i).key(), freshIds.get(i));
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            ids.add(stored.get(pending.key()));
+        }
+        return ids;
+    }
+
+    private Map<String, Long> findStored(List<PendingMessage> batch) {
+        Set<Long> senderIds = new LinkedHashSet<>();
+        Set<String> clientIds = new LinkedHashSet<>();
+        for (PendingMessage pending : batch) {
+            senderIds.add(pending.senderId);
+            clientIds.add(pending.clientMessageId);
+        }
+        List<Object> args = new ArrayList<>(senderIds);
+        args.addAll(clientIds);
+        String sql = "SELECT id, sender_id, client_message_id FROM messages WHERE sender_id IN (" + placeholders(senderIds.size()) +
+                ") AND client_message_id IN (" + placeholders(clientIds.size()) + ")";
+
+        Map<String, Long> stored = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            stored.put(rs.getLong("sender_id") + ":" + rs.getString("client_message_id"), rs.getLong("id"));
+        }, args.toArray());
+        return stored;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private List<Long> insert(List<PendingMessage> batch) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingMessage pending = batch.get(i);
+                        Timestamp createdAt = Timestamp.valueOf(pending.createdAt);
+                        ps.setLong(1, pending.conversationId);
+                        ps.setLong(2, pending.senderId);
+                        ps.setLong(3, pending.receiverId);
+                        ps.setString(4, pending.content);
+                        ps.setString(5, Message.MessageType.TEXT.name());
+                        ps.setBoolean(6, false);
+                        ps.setString(7, pending.clientMessageId);
+                        ps.setTimestamp(8, createdAt);
+                        ps.setTimestamp(9, createdAt);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                },
+                keyHolder);
+
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+
+        // Later messages in the batch win, so each conversation ends up pointing at its newest one
+        Map<Long, Integer> lastByConversation = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            lastByConversation.put(batch.get(i).conversationId, i);
+        }
+        List<Object[]> updates = new ArrayList<>(lastByConversation.size());
+        lastByConversation.forEach((conversationId, i) ->
+                updates.add(new Object[]{ids.get(i), Timestamp.valueOf(batch.get(i).createdAt), conversationId}));
+        jdbcTemplate.batchUpdate(UPDATE_CONVERSATION_SQL, updates);
+        return ids;
+    }
+
+    private void deliver(PendingMessage pending, Long messageId) {
+        try {
+            ChatMessageWebSocketDto wsMessage = new ChatMessageWebSocketDto();
+            wsMessage.setId(messageId);
+            wsMessage.setClientMessageId(pending.clientMessageId);
+            wsMessage.setContent(pending.content);
+            wsMessage.setSenderId(pending.senderId);
+            wsMessage.setSenderName((String) pending.senderProfile.get("fullName"));
+            wsMessage.setSenderProfileImageUrl((String) pending.senderProfile.get("profileImageUrl"));
+            wsMessage.setReceiverId(pending.receiverId);
+            wsMessage.setCreatedAt(pending.createdAt);
+            wsMessage.setType("message");
+            messagingTemplate.convertAndSendToUser(pending.receiverId.toString(), MESSAGES_DESTINATION, wsMessage);
+        } catch (RuntimeException e) {
+            log.warn("Could not push chat message {} to user {}: {}", messageId, pending.receiverId, e.getMessage());
+        }
+        acknowledge(pending, messageId, STATUS_PERSISTED);
+    }
+
+    private void acknowledge(PendingMessage pending, Long messageId, String status) {
+        try {
+            ChatSendAckDto ack = new ChatSendAckDto(pending.clientMessageId, messageId, pending.conversationId, status, pending.createdAt);
+            messagingTemplate.convertAndSendToUser(pending.senderId.toString(), ACKS_DESTINATION, ack);
+        } catch (RuntimeException e) {
+            log.warn("Could not acknowledge chat message {} to user {}: {}", pending.clientMessageId, pending.senderId, e.getMessage());
+        }
+    }
+
+    @AllArgsConstructor
+    private static class PendingMessage {
+        private final String clientMessageId;
+        private final Long conversationId;
+        private final Long senderId;
+        private final Long receiverId;
+        private final String content;
+        private final LocalDateTime createdAt;
+        private final Map<String, Object> senderProfile;
+
+        private String key() {
+            return senderId + ":" + clientMessageId;
+        }
+    }
+
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException(String message) {
+            super(message);
+        }
+    }
+}
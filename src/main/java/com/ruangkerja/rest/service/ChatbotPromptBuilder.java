@@ -0,0 +1,182 @@
+package com.ruangkerja.rest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ruangkerja.rest.dto.ChatMessageDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Builds chatbot prompts within a token budget. The fixed system preamble is a constant; the
+ * conversation history is fitted into {@code app.chatbot.history.token-budget} by keeping the
+ * most recent turns verbatim and collapsing everything older into a short summary of the first
+ * sentence of each turn. Summaries are cached by the content of the turns they cover, so
+ * a request that repeats the same older history (retries, regenerate) reuses it.
+ *
+ * <p>Tokens are estimated at four characters each, which is close enough for English and
+ * Indonesian text to keep payloads bounded.
+ */
+@Service
+public class ChatbotPromptBuilder {
+
+    static final String PREAMBLE =
+            "You are an enthusiastic and knowledgeable AI career consultant for RuangKerja, Indonesia's premier professional networking platform. " +
+            "You're passionate about helping job seekers and professionals succeed in their careers. " +
+            "RuangKerja connects talented individuals with amazing opportunities across Indonesia. " +
+            "Your personality: " +
+            "- Friendly, encouraging, and motivational " +
+            "- Provide specific, actionable advice " +
+            "- Use examples and practical tips " +
+            "- Be conversational and engaging " +
+            "- Show enthusiasm for career growth " +
+            "- Ask follow-up questions when helpful " +
+            "Topics you excel at: " +
+            "- Job search strategies and hidden job markets " +
+            "- Resume optimization with ATS-friendly tips " +
+            "- Interview preparation and negotiation tactics " +
+            "- LinkedIn and professional networking " +
+            "- Career transitions and skill development " +
+            "- Industry insights and market trends " +
+            "- Personal branding and professional presence " +
+            "Always provide specific, actionable advice with examples. " +
+            "If the question isn't career-related, politely redirect with career insights. " +
+            "Keep responses engaging but concise (2-3 paragraphs max).\n\n";
+
+    private static final int CHARS_PER_TOKEN = 4;
+    // Longest excerpt of one turn in the summary
+    private static final int SUMMARY_LINE_CHARS = 160;
+
+    @Value("${app.chatbot.history.token-budget:1500}")
+    private int tokenBudget = 1500;
+
+    @Value("${app.chatbot.history.summary-tokens:300}")
+    private int summaryTokens = 300;
+
+    private final Cache<String, String> summaries = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    public String build(String userMessage, List<ChatMessageDto> conversationHistory) {
+        StringBuilder prompt = new StringBuilder(PREAMBLE.length() + tokenBudget * CHARS_PER_TOKEN + userMessage.length() + 128);
+        prompt.append(PREAMBLE);
+
+        List<ChatMessageDto> turns = validTurns(conversationHistory);
+        if (!turns.isEmpty()) {
+            int remaining = tokenBudget - estimateTokens(userMessage);
+
+            // Newest turns first, verbatim, while they fit next to the summary allowance
+            int verbatimBudget = remaining - summaryTokens;
+            int firstVerbatim = turns.size();
+            while (firstVerbatim > 0) {
+                int cost = estimateTokens(turns.get(firstVerbatim - 1).getContent()) + 2;
+                if (cost > verbatimBudget) {
+                    break;
+                }
+                verbatimBudget -= cost;
+                firstVerbatim--;
+            }
+
+            String summary = firstVerbatim > 0 ? summarize(turns.subList(0, firstVerbatim)) : null;
+            if (summary != null && !summary.isEmpty()) {
+                prompt.append("Summary of earlier conversation:\n").append(summary).append("\n");
+            }
+            if (firstVerbatim < turns.size()) {
+                prompt.append("Conversation history:\n");
+                for (ChatMessageDto message : turns.subList(firstVerbatim, turns.size())) {
+                    appendTurn(prompt, message.getRole(), message.getContent());
+                }
+                prompt.append("\n");
+            }
+        }
+
+        prompt.append("Current user question: ").append(userMessage);
+        prompt.append("\n\nProvide an engaging, helpful response with specific actionable advice:");
+        return prompt.toString();
+    }
+
+    static int estimateTokens(String text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    // --- Helper Methods ---
+    private static List<ChatMessageDto> validTurns(List<ChatMessageDto> conversationHistory) {
+        List<ChatMessageDto> turns = new ArrayList<>();
+        if (conversationHistory != null) {
+            for (ChatMessageDto message : conversationHistory) {
+                if (message != null && message.getRole() != null && message.getContent() != null) {
+                    turns.add(message);
+                }
+            }
+        }
+        return turns;
+    }
+
+    private String summarize(List<ChatMessageDto> olderTurns) {
+        return summaries.get(digest(olderTurns), key -> buildSummary(olderTurns));
+    }
+
+    // First sentence of each turn, newest kept when the summary allowance runs out
+    private String buildSummary(List<ChatMessageDto> olderTurns) {
+        Deque<String> lines = new ArrayDeque<>();
+        int budget = summaryTokens;
+        for (int i = olderTurns.size() - 1; i >= 0; i--) {
+            ChatMessageDto message = olderTurns.get(i);
+            String line = "- " + (message.getRole().equals("user") ? "User: " : "Assistant: ")
+                    + firstSentence(message.getContent());
+            int cost = estimateTokens(line) + 1;
+            if (cost > budget) {
+                break;
+            }
+            budget -= cost;
+            lines.addFirst(line);
+        }
+        return String.join("\n", lines);
+    }
+
+    private static String firstSentence(String content) {
+        String text = content.strip().replaceAll("\\s+", " ");
+        int end = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c == '.' || c == '?' || c == '!') && (i + 1 == text.length() || text.charAt(i + 1) == ' ')) {
+                end = i + 1;
+                break;
+            }
+        }
+        if (end > SUMMARY_LINE_CHARS) {
+            return text.substring(0, SUMMARY_LINE_CHARS - 3) + "...";
+        }
+        return text.substring(0, end);
+    }
+
+    private static void appendTurn(StringBuilder prompt, String role, String content) {
+        prompt.append(role.equals("user") ? "User: " : "Assistant: ");
+        prompt.append(content).append("\n");
+    }
+
+    private static String digest(List<ChatMessageDto> turns) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (ChatMessageDto message : turns) {
+                sha.update(message.getRole().getBytes(StandardCharsets.UTF_8));
+                sha.update((byte) 0);
+                sha.update(message.getContent().getBytes(StandardCharsets.UTF_8));
+                sha.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
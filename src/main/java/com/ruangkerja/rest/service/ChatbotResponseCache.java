@@ -0,0 +1,126 @@
+package com.ruangkerja.rest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Caches chatbot answers to questions asked without conversation history, so common questions
+ * ("how to write a CV", "tips interview") are answered from memory instead of a Gemini round
+ * trip. Questions are keyed by a fingerprint that ignores case, punctuation, filler words and a
+ * few synonyms, so near-identical phrasings share one entry. Word order is kept: "move from sales
+ * to engineering" and "move from engineering to sales" ask different things. The cache is
+ * size-bounded (W-TinyLFU eviction) and entries expire after {@code app.chatbot.cache.ttl-minutes}.
+ */
+@Service
+public class ChatbotResponseCache {
+
+    // Longer questions are too specific to repeat; not worth an entry
+    private static final int MAX_FINGERPRINT_TOKENS = 24;
+
+    private static final Set<String> FILLER_WORDS = Set.of(
+            // English
+            "a", "an", "the", "to", "of", "for", "in", "on", "at", "my", "me", "i", "is", "are", "be",
+            "can", "you", "your", "please", "some", "any", "about", "and", "or", "do", "does",
+            // Indonesian
+            "yang", "untuk", "dan", "di", "ke", "dari", "saya", "aku", "tolong", "dong", "ya", "bisa",
+            "agar", "supaya", "itu", "ini", "nya", "sih", "kah", "mohon", "kak");
+
+    private static final Map<String, String> SYNONYMS = Map.of(
+            "resume", "cv",
+            "curriculum", "cv",
+            "interviews", "interview",
+            "wawancara", "interview",
+            "tip", "tips",
+            "kiat", "tips",
+            "lamaran", "application",
+            "pekerjaan", "job",
+            "kerja", "job",
+            "jobs", "job");
+
+    private final Cache<String, String> cache;
+
+    @Autowired
+    public ChatbotResponseCache(@Value("${app.chatbot.cache.max-entries:10000}") long maxEntries,
+                                @Value("${app.chatbot.cache.ttl-minutes:60}") long ttlMinutes) {
+        this(maxEntries, Duration.ofMinutes(ttlMinutes), Ticker.systemTicker());
+    }
+
+    ChatbotResponseCache(long maxEntries, Duration ttl, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Cached answer for the question, if it was answered before and has not expired.
+     */
+    public Optional<String> get(String question) {
+        String key = fingerprint(question);
+        return key != null ? Optional.ofNullable(cache.getIfPresent(key)) : Optional.empty();
+    }
+
+    public void put(String question, String answer) {
+        String key = fingerprint(question);
+        if (key != null && answer != null && !answer.isBlank()) {
+            cache.put(key, answer);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    /**
+     * Normalized key of a question: lowercase words without accents or punctuation, filler words
+     * dropped and synonyms unified, in their original order. Null if nothing is left or the question
+     * is too long to be worth caching.
+     */
+    static String fingerprint(String question) {
+        if (question == null) {
+            return null;
+        }
+        String normalized = Normalizer.normalize(question, Normalizer.Form.NFKD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{Nd}]+", " ")
+                .trim();
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalized.split(" ")) {
+            if (!FILLER_WORDS.contains(token)) {
+                tokens.add(SYNONYMS.getOrDefault(token, token));
+            }
+        }
+        if (tokens.isEmpty() || tokens.size() > MAX_FINGERPRINT_TOKENS) {
+            return null;
+        }
+        return String.join(" ", tokens);
+    }
+}
@@ -0,0 +1,212 @@
+package com.ruangkerja.rest.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.ruangkerja.rest.dto.ChatMessageDto;
+import com.ruangkerja.rest.entity.ChatbotSession;
+import com.ruangkerja.rest.repository.ChatbotSessionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-side chatbot conversations, so clients send only the new message and a session id
+ * instead of the whole history. Sessions expire after {@code app.chatbot.session.ttl-minutes}
+ * without use; each keeps at most {@code app.chatbot.session.max-turns} turns.
+ *
+ * <p>By default sessions live in a size-bounded in-memory cache on this node. With
+ * {@code app.chatbot.session.persist} on, {@code chatbot_sessions} is the only copy: every request
+ * reads the session from there and every change is written back, so any node can serve the next
+ * message and none overwrites a newer history with a stale cached one.
+ */
+@Service
+@Slf4j
+public class ChatbotSessionStore {
+
+    private static final TypeReference<List<ChatMessageDto>> HISTORY_TYPE = new TypeReference<>() {};
+
+    private final ChatbotSessionRepository sessionRepository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Cache<String, Session> sessions;
+    private final Duration ttl;
+
+    @Value("${app.chatbot.session.max-turns:40}")
+    private int maxTurns = 40;
+
+    @Value("${app.chatbot.session.persist:false}")
+    private boolean persist = false;
+
+    private ScheduledExecutorService purger;
+
+    @Autowired
+    public ChatbotSessionStore(ChatbotSessionRepository sessionRepository,
+                               @Value("${app.chatbot.session.max-sessions:10000}") long maxSessions,
+                               @Value("${app.chatbot.session.ttl-minutes:30}") long ttlMinutes) {
+        this(sessionRepository, maxSessions, Duration.ofMinutes(ttlMinutes), Ticker.systemTicker());
+    }
+
+    ChatbotSessionStore(ChatbotSessionRepository sessionRepository, long maxSessions, Duration ttl, Ticker ticker) {
+        this.sessionRepository = sessionRepository;
+        this.ttl = ttl;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfterAccess(ttl)
+                .ticker(ticker)
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!persist) {
+            return;
+        }
+        purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chatbot-session-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = Math.max(ttl.toMillis(), 60000);
+        purger.scheduleWithFixedDelay(this::purgeExpired, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    /**
+     * The session with this id, or a new empty one when the id is null, unknown or expired.
+     * Callers must use the returned session's id from then on.
+     */
+    public Session open(String sessionId) {
+        if (sessionId != null) {
+            Session session = persist ? load(sessionId) : sessions.getIfPresent(sessionId);
+            if (session != null) {
+                return session;
+            }
+        }
+        Session session = new Session(UUID.randomUUID().toString());
+        if (!persist) {
+            sessions.put(session.getId(), session);
+        }
+        return session;
+    }
+
+    /**
+     * Records one question and its answer, dropping the oldest turns beyond {@code max-turns}.
+     */
+    public void append(Session session, String userMessage, String answer) {
+        String history;
+        synchronized (session) {
+            session.turns.addLast(new ChatMessageDto("user", userMessage));
+            session.turns.addLast(new ChatMessageDto("assistant", answer));
+            while (session.turns.size() > maxTurns) {
+                session.turns.removeFirst();
+            }
+            history = persist ? serialize(List.copyOf(session.turns)) : null;
+        }
+        if (history == null) {
+            // Put back in case it was evicted while the answer was generated
+            sessions.put(session.getId(), session);
+        } else {
+            try {
+                sessionRepository.save(new ChatbotSession(session.getId(), history, LocalDateTime.now()));
+            } catch (RuntimeException e) {
+                log.warn("Could not persist chatbot session {}: {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    public void remove(String sessionId) {
+        sessions.invalidate(sessionId);
+        if (persist) {
+            sessionRepository.deleteById(sessionId);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("active", persist ? sessionRepository.count() : sessions.estimatedSize());
+        stats.put("persistent", persist);
+        return stats;
+    }
+
+    void purgeExpired() {
+        try {
+            int purged = sessionRepository.deleteByUpdatedAtBefore(LocalDateTime.now().minus(ttl));
+            if (purged > 0) {
+                log.debug("Purged {} expired chatbot sessions", purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Chatbot session purge failed: {}", e.getMessage());
+        }
+    }
+
+    // --- Helper Methods ---
+    private Session load(String sessionId) {
+        Optional<ChatbotSession> stored = sessionRepository.findById(sessionId);
+        if (stored.isEmpty() || stored.get().getUpdatedAt().isBefore(LocalDateTime.now().minus(ttl))) {
+            return null;
+        }
+        try {
+            Session session = new Session(sessionId);
+            session.turns.addAll(objectMapper.readValue(stored.get().getHistory(), HISTORY_TYPE));
+            // max-turns may have been lowered since the history was stored
+            while (session.turns.size() > maxTurns) {
+                session.turns.removeFirst();
+            }
+            return session;
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable chatbot session {}: {}", sessionId, e.getMessage());
+            return null;
+        }
+    }
+
+    private String serialize(List<ChatMessageDto> turns) {
+        try {
+            return objectMapper.writeValueAsString(turns);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class Session {
+        private final String id;
+        // Oldest first, guarded by the session
+        private final Deque<ChatMessageDto> turns = new ArrayDeque<>();
+
+        Session(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public synchronized List<ChatMessageDto> history() {
+            return List.copyOf(turns);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ruangkerja.rest.service;
+
+import java.util.*;
+
+/**
+ * SymSpell-style deletion dictionary over indexed search terms. Every term is stored under all
+ * variants obtained by deleting up to {@code maxEditDistance} characters, so finding terms within
+ * that edit distance of a query token only takes a lookup per deletion variant of the token,
+ * independent of the vocabulary size.
+ *
+ * <p>Not thread-safe; {@link SearchIndexService} guards it with its index lock.
+ */
+class FuzzyTermDictionary {
+
+    private final int maxEditDistance;
+    private final int minTermLength;
+    // deletion variant -> terms producing it
+    private final Map<String, Set<String>> deletes = new HashMap<>();
+
+    FuzzyTermDictionary(int maxEditDistance, int minTermLength) {
+        this.maxEditDistance = maxEditDistance;
+        this.minTermLength = minTermLength;
+    }
+
+    void add(String term) {
+        if (!accepts(term)) {
+            return;
+        }
+        for (String variant : variants(term)) {
+            deletes.computeIfAbsent(variant, v -> new HashSet<>()).add(term);
+        }
+    }
+
+    void remove(String term) {
+        if (!accepts(term)) {
+            return;
+        }
+        for (String variant : variants(term)) {
+            Set<String> terms = deletes.get(variant);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    deletes.remove(variant);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns indexed terms within the maximum edit distance of the token (excluding the token
+     * itself), mapped to their distance.
+     */
+    Map<String, Integer> lookup(String token) {
+        Map<String, Integer> matches = new HashMap<>();
+        if (!accepts(token)) {
+            return matches;
+        }
+        for (String variant : variants(token)) {
+            Set<String> terms = deletes.get(variant);
+            if (terms == null) {
+                continue;
+            }
+            for (String term : terms) {
+                if (term.equals(token) || matches.containsKey(term)) {
+                    continue;
+                }
+                int distance = distance(token, term);
+                if (distance <= maxEditDistance) {
+                    matches.put(term, distance);
+                }
+            }
+        }
+        return matches;
+    }
+
+    // --- Helper Methods ---
+    private boolean accepts(String term) {
+        return maxEditDistance > 0 && term.length() >= minTermLength;
+    }
+
+    private Set<String> variants(String term) {
+        Set<String> variants = new HashSet<>();
+        variants.add(term);
+        List<String> frontier = List.of(term);
+        for (int d = 0; d < maxEditDistance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String word : frontier) {
+                if (word.length() <= 1) {
+                    continue;
+                }
+                for (int i = 0; i < word.length(); i++) {
+                    String deleted = word.substring(0, i) + word.substring(i + 1);
+                    if (variants.add(deleted)) {
+                        next.add(deleted);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return variants;
+    }
+
+    // Optimal string alignment distance (Levenshtein plus adjacent transpositions)
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,325 @@
+package com.ruangkerja.rest.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Protects the rest of the API from Gemini trouble. Every outbound call goes through three stages:
+ *
+ * <ul>
+ *   <li>single flight: identical prompts already in flight share that call's result instead of
+ *       starting another one (non-streaming calls only);</li>
+ *   <li>bulkhead: at most {@code max-concurrent} calls run at once, up to {@code max-queue} more
+ *       wait for a slot for {@code queue-timeout-ms}, and anything beyond is rejected. Waiting is
+ *       asynchronous, so queued requests hold no servlet thread;</li>
+ *   <li>circuit breaker: when at least {@code breaker.failure-rate} percent of the last
+ *       {@code breaker.window-size} calls failed or took longer than {@code breaker.slow-call-ms},
+ *       calls are rejected for {@code breaker.open-ms}, then a few trial calls decide whether to
+ *       close it again.</li>
+ * </ul>
+ *
+ * Rejections complete the future with a {@link RejectedException}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GeminiCallGuard {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final GeminiClient geminiClient;
+
+    @Value("${app.chatbot.gemini.max-concurrent:16}")
+    private int maxConcurrent = 16;
+
+    @Value("${app.chatbot.gemini.max-queue:32}")
+    private int maxQueue = 32;
+
+    @Value("${app.chatbot.gemini.queue-timeout-ms:2000}")
+    private long queueTimeoutMs = 2000;
+
+    @Value("${app.chatbot.gemini.breaker.window-size:20}")
+    private int windowSize = 20;
+
+    @Value("${app.chatbot.gemini.breaker.minimum-calls:10}")
+    private int minimumCalls = 10;
+
+    @Value("${app.chatbot.gemini.breaker.failure-rate:50}")
+    private int failureRate = 50;
+
+    @Value("${app.chatbot.gemini.breaker.slow-call-ms:15000}")
+    private long slowCallMs = 15000;
+
+    @Value("${app.chatbot.gemini.breaker.open-ms:30000}")
+    private long openMs = 30000;
+
+    @Value("${app.chatbot.gemini.breaker.half-open-calls:3}")
+    private int halfOpenCalls = 3;
+
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    // Bulkhead and breaker state, guarded by this
+    private int available;
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean[] outcomes;
+    private int outcomeIndex;
+    private int outcomeCount;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    // Milliseconds; replaced in tests
+    LongSupplier clock = System::currentTimeMillis;
+
+    private ScheduledExecutorService timer;
+
+    @PostConstruct
+    public void start() {
+        available = maxConcurrent;
+        outcomes = new boolean[windowSize];
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "gemini-bulkhead-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Guarded {@link GeminiClient#generateContent}. Callers asking the same prompt concurrently
+     * share one upstream call; cancelling the returned future does not affect the others.
+     */
+    public CompletableFuture<String> generateContent(String prompt) {
+        CompletableFuture<String> shared = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(prompt, shared);
+        if (existing != null) {
+            return existing.copy();
+        }
+        run(() -> geminiClient.generateContent(prompt)).whenComplete((text, error) -> {
+            inFlight.remove(prompt, shared);
+            if (error != null) {
+                shared.completeExceptionally(error);
+            } else {
+                shared.complete(text);
+            }
+        });
+        return shared.copy();
+    }
+
+    /**
+     * Guarded {@link GeminiClient#streamGenerateContent}; cancelling the returned future also
+     * cancels a stream that is waiting for a slot or already running.
+     */
+    public CompletableFuture<Void> streamGenerateContent(String prompt, Consumer<String> onText) {
+        return run(() -> geminiClient.streamGenerateContent(prompt, onText));
+    }
+
+    public synchronized State getState() {
+        currentState();
+        return state;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("circuit", getState().name());
+        stats.put("running", maxConcurrent - available);
+        stats.put("waiting", waiters.size());
+        stats.put("coalescing", inFlight.size());
+        return stats;
+    }
+
+    // --- Helper Methods ---
+    private <T> CompletableFuture<T> run(Supplier<CompletableFuture<T>> call) {
+        if (!tryEnterBreaker()) {
+            return CompletableFuture.failedFuture(new RejectedException("Gemini is failing; circuit breaker is open"));
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<T>> running = new AtomicReference<>();
+        result.whenComplete((ignored, error) -> {
+            CompletableFuture<T> current = running.get();
+            if (result.isCancelled() && current != null) {
+                current.cancel(true);
+            }
+        });
+
+        acquire().whenComplete((ignored, rejected) -> {
+            if (rejected != null) {
+                leaveBreaker();
+                result.completeExceptionally(rejected);
+                return;
+            }
+            if (result.isDone()) {
+                // Cancelled while queued
+                release();
+                leaveBreaker();
+                return;
+            }
+            long startedAt = clock.getAsLong();
+            CompletableFuture<T> upstream = start(call);
+            running.set(upstream);
+            upstream.whenComplete((value, error) -> {
+                release();
+                if (upstream.isCancelled()) {
+                    leaveBreaker();
+                } else {
+                    recordOutcome(error != null || clock.getAsLong() - startedAt >= slowCallMs);
+                }
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+            if (result.isCancelled()) {
+                upstream.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Void> acquire() {
+        CompletableFuture<Void> waiter;
+        synchronized (this) {
+            if (available > 0) {
+                available--;
+                return CompletableFuture.completedFuture(null);
+            }
+            if (waiters.size() >= maxQueue) {
+                return CompletableFuture.failedFuture(new RejectedException("Too many chatbot requests waiting for Gemini"));
+            }
+            waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+        }
+        timer.schedule(() -> {
+            if (waiter.completeExceptionally(new RejectedException("Timed out waiting for a Gemini slot"))) {
+                synchronized (this) {
+                    waiters.remove(waiter);
+                }
+            }
+        }, queueTimeoutMs, TimeUnit.MILLISECONDS);
+        return waiter;
+    }
+
+    // Hands the slot to the next live waiter, completing it outside the lock
+    private void release() {
+        while (true) {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = waiters.poll();
+                if (next == null) {
+                    available++;
+                    return;
+                }
+            }
+            if (next.complete(null)) {
+                return;
+            }
+        }
+    }
+
+    private synchronized boolean tryEnterBreaker() {
+        currentState();
+        if (state == State.OPEN) {
+            return false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    // A call admitted by the breaker ended without an outcome (rejected by the bulkhead or cancelled)
+    private synchronized void leaveBreaker() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    private synchronized void recordOutcome(boolean failed) {
+        if (state == State.HALF_OPEN) {
+            if (failed) {
+                open();
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                log.info("Gemini circuit breaker closed");
+                state = State.CLOSED;
+                outcomeCount = 0;
+                outcomeIndex = 0;
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        outcomes[outcomeIndex] = failed;
+        outcomeIndex = (outcomeIndex + 1) % outcomes.length;
+        outcomeCount = Math.min(outcomeCount + 1, outcomes.length);
+        if (outcomeCount >= minimumCalls) {
+            int failures = 0;
+            for (int i = 0; i < outcomeCount; i++) {
+                if (outcomes[i]) {
+                    failures++;
+                }
+            }
+            if (failures * 100 >= failureRate * outcomeCount) {
+                open();
+            }
+        }
+    }
+
+    private void open() {
+        log.warn("Gemini circuit breaker opened for {} ms", openMs);
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+    }
+
+    private void currentState() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openMs) {
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+    }
+
+    public static class RejectedException extends RuntimeException {
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.ruangkerja.rest.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking Gemini client. One shared JDK {@link HttpClient} keeps connections to Gemini
+ * alive and multiplexed over HTTP/2, with an explicit connect timeout and a per-request timeout.
+ * For {@link #generateContent} that timeout covers the whole response, body included; for the
+ * stream it only bounds the wait for the response headers. Calls return a
+ * {@link CompletableFuture}, so no servlet thread waits while the model generates.
+ *
+ * <p>{@link #streamGenerateContent} reads {@code streamGenerateContent} as server-sent events
+ * and hands over each text chunk as it arrives; cancelling its future closes the connection.
+ */
+@Service
+@Slf4j
+public class GeminiClient {
+
+    private static final String CONTENT_KEY = "content";
+    private static final String PARTS_KEY = "parts";
+    private static final String CANDIDATES_KEY = "candidates";
+    private static final String TEXT_KEY = "text";
+    private static final String SSE_DATA_PREFIX = "data:";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final String modelUrl;
+    private final String apiKey;
+    private final Duration requestTimeout;
+
+    public GeminiClient(@Value("${gemini.api.url:https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash}") String modelUrl,
+                        @Value("${gemini.api.key}") String apiKey,
+                        @Value("${gemini.api.connect-timeout-ms:5000}") long connectTimeoutMs,
+                        @Value("${gemini.api.request-timeout-ms:30000}") long requestTimeoutMs) {
+        this.modelUrl = modelUrl;
+        this.apiKey = apiKey;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+
+    /**
+     * Sends the prompt to {@code generateContent} and completes with the first candidate's text,
+     * or exceptionally with a {@link GeminiException}.
+     */
+    public CompletableFuture<String> generateContent(String prompt) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(modelUrl + ":generateContent?key=" + apiKey))
+                    .timeout(requestTimeout)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(requestBody(prompt))))
+                    .build();
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new GeminiException("Could not encode Gemini request", e));
+        }
+
+        CompletableFuture<HttpResponse<String>> call = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        // The request timeout only bounds the wait for headers; this also bounds a slow body
+        return call.copy()
+                .orTimeout(requestTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((response, error) -> {
+                    if (error != null) {
+                        call.cancel(true);
+                        throw failure(error);
+                    }
+                    if (response.statusCode() != 200) {
+                        throw new GeminiException("Gemini API returned HTTP " + response.statusCode());
+                    }
+                    return extractText(response.body());
+                });
+    }
+
+    /**
+     * Streams the answer to the prompt, calling {@code onText} with each text chunk in order.
+     * The future completes when Gemini ends the stream, or exceptionally with a
+     * {@link GeminiException}; cancelling it stops the upstream call.
+     */
+    public CompletableFuture<Void> streamGenerateContent(String prompt, Consumer<String> onText) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(modelUrl + ":streamGenerateContent?alt=sse&key=" + apiKey))
+                    .timeout(requestTimeout)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(requestBody(prompt))))
+                    .build();
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new GeminiException("Could not encode Gemini request", e));
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        EventLineSubscriber subscriber = new EventLineSubscriber(onText, result);
+        result.whenComplete((ignored, error) -> {
+            if (result.isCancelled()) {
+                subscriber.cancel();
+            }
+        });
+
+        httpClient.sendAsync(request, responseInfo -> {
+            if (responseInfo.statusCode() != 200) {
+                return HttpResponse.BodySubscribers.replacing(null);
+            }
+            return HttpResponse.BodySubscribers.fromLineSubscriber(subscriber);
+        }).whenComplete((response, error) -> {
+            if (error != null) {
+                result.completeExceptionally(failure(error));
+            } else if (response.statusCode() != 200) {
+                result.completeExceptionally(new GeminiException("Gemini API returned HTTP " + response.statusCode()));
+            } else {
+                result.complete(null);
+            }
+        });
+        return result;
+    }
+
+    // --- Helper Methods ---
+    Map<String, Object> requestBody(String prompt) {
+        Map<String, Object> requestBody = new HashMap<>();
+
+        Map<String, Object> content = new HashMap<>();
+        content.put(PARTS_KEY, List.of(Map.of(TEXT_KEY, prompt)));
+        requestBody.put("contents", List.of(content));
+
+        Map<String, Object> generationConfig = new HashMap<>();
+        generationConfig.put("temperature", 0.7);
+        generationConfig.put("topK", 40);
+        generationConfig.put("topP", 0.95);
+        generationConfig.put("maxOutputTokens", 1024);
+        requestBody.put("generationConfig", generationConfig);
+
+        List<Map<String, Object>> safetySettings = new ArrayList<>();
+        String[] categories = {"HARM_CATEGORY_HARASSMENT", "HARM_CATEGORY_HATE_SPEECH",
+                              "HARM_CATEGORY_SEXUALLY_EXPLICIT", "HARM_CATEGORY_DANGEROUS_CONTENT"};
+        for (String category : categories) {
+            Map<String, Object> setting = new HashMap<>();
+            setting.put("category", category);
+            setting.put("threshold", "BLOCK_MEDIUM_AND_ABOVE");
+            safetySettings.add(setting);
+        }
+        requestBody.put("safetySettings", safetySettings);
+        return requestBody;
+    }
+
+    // Text of the first candidate
+    String extractText(String responseBody) {
+        String text;
+        try {
+            text = textOf(objectMapper.readTree(responseBody));
+        } catch (JsonProcessingException e) {
+            throw new GeminiException("Unable to parse response from Gemini API", e);
+        }
+        if (text == null) {
+            throw new GeminiException("Unable to parse response from Gemini API");
+        }
+        return text;
+    }
+
+    // Text of the first candidate, or null if the response carries none (e.g. a final stream chunk)
+    private static String textOf(JsonNode responseJson) {
+        JsonNode candidates = responseJson.path(CANDIDATES_KEY);
+        if (candidates.size() > 0) {
+            JsonNode parts = candidates.get(0).path(CONTENT_KEY).path(PARTS_KEY);
+            if (parts.size() > 0 && parts.get(0).has(TEXT_KEY)) {
+                return parts.get(0).get(TEXT_KEY).asText();
+            }
+        }
+        return null;
+    }
+
+    private static GeminiException failure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof GeminiException gemini) {
+            return gemini;
+        }
+        if (cause instanceof HttpTimeoutException || cause instanceof TimeoutException) {
+            return new GeminiException("Gemini API timed out", cause);
+        }
+        return new GeminiException("Error calling Gemini API", cause);
+    }
+
+    // Turns "data: {...}" lines of the SSE body into text chunks
+    private final class EventLineSubscriber implements Flow.Subscriber<String> {
+        private final Consumer<String> onText;
+        private final CompletableFuture<Void> result;
+        private volatile Flow.Subscription subscription;
+
+        private EventLineSubscriber(Consumer<String> onText, CompletableFuture<Void> result) {
+            this.onText = onText;
+            this.result = result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (result.isDone()) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (result.isDone() || !line.startsWith(SSE_DATA_PREFIX)) {
+                return;
+            }
+            try {
+                String text = textOf(objectMapper.readTree(line.substring(SSE_DATA_PREFIX.length()).trim()));
+                if (text != null && !text.isEmpty()) {
+                    onText.accept(text);
+                }
+            } catch (Exception e) {
+                result.completeExceptionally(e instanceof GeminiException ? e
+                        : new GeminiException("Unable to handle Gemini stream chunk", e));
+                cancel();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(failure(throwable));
+        }
+
+        @Override
+        public void onComplete() {
+            // The response future completes the result
+        }
+
+        private void cancel() {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+
+    public static class GeminiException extends RuntimeException {
+        public GeminiException(String message) {
+            super(message);
+        }
+
+        public GeminiException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.ruangkerja.rest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.NodeList;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Downscaled copies of uploaded images, so lists showing small avatars do not download multi-megabyte
+ * originals. For every width in {@code app.upload.variants.widths} a compressed JPEG named
+ * {@code <original name>_w<width>.jpg} is written next to the original, scaled to that width (never
+ * up), turned upright according to the EXIF orientation browsers apply to the original, with
+ * transparency flattened onto white.
+ *
+ * <p>Variants are made in the background after upload. Images uploaded before this existed get
+ * theirs the first time a variant is asked for; until a variant exists, the original is served.
+ * Files ImageIO cannot decode (SVG, WebP) only ever have the original. Variants are never made
+ * of variants: a request for {@code x_w96.jpg} is served as is.
+ */
+@Service
+@Slf4j
+public class ImageVariantService {
+
+    // Refuse to decode anything larger; a small file can still expand to gigabytes of pixels
+    private static final long MAX_PIXELS = 16_000_000L;
+
+    private static final Pattern VARIANT_NAME = Pattern.compile(".*_w\\d+\\.jpg");
+
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+    private static final String APP1_MARKER = "225";
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    @Value("${app.upload.variants.widths:96,640}")
+    private int[] widths = {96, 640};
+
+    @Value("${app.upload.variants.jpeg-quality:0.8}")
+    private float jpegQuality = 0.8f;
+
+    @Value("${app.upload.variants.threads:2}")
+    private int threads = 2;
+
+    @Value("${app.upload.variants.max-queue:200}")
+    private int maxQueue = 200;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    // Originals that could not be decoded, so requests for them do not retry every time
+    private final Cache<String, Boolean> unprocessable = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        widths = Arrays.stream(widths).filter(width -> width > 0).sorted().distinct().toArray();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(maxQueue), r -> {
+                    Thread thread = new Thread(r, "image-variants");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues variant generation for a freshly stored original.
+     */
+    public void generateVariants(Path original) {
+        String key = original.toAbsolutePath().toString();
+        if (isVariant(original) || !pending.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    createVariants(original);
+                } finally {
+                    pending.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full or shutting down; the variant is then made when next requested
+            pending.remove(key);
+            log.debug("Image variant queue full, skipping {}", original);
+        }
+    }
+
+    /**
+     * The file to serve for a request of {@code requestedWidth} pixels: the smallest variant at least
+     * that wide, or the original when none fits or the variant is not ready yet.
+     */
+    public Path resolve(Path original, int requestedWidth) {
+        if (isVariant(original)) {
+            return original;
+        }
+        int width = -1;
+        for (int candidate : widths) {
+            if (candidate >= requestedWidth) {
+                width = candidate;
+                break;
+            }
+        }
+        if (width < 0) {
+            return original;
+        }
+        Path variant = variantPath(original, width);
+        if (Files.exists(variant)) {
+            return variant;
+        }
+        if (Files.exists(original) && unprocessable.getIfPresent(original.toAbsolutePath().toString()) == null) {
+            generateVariants(original);
+        }
+        return original;
+    }
+
+    public void deleteVariants(Path original) {
+        for (int width : widths) {
+            try {
+                Files.deleteIfExists(variantPath(original, width));
+            } catch (IOException e) {
+                log.warn("Failed to delete image variant of {}: {}", original, e.getMessage());
+            }
+        }
+    }
+
+    static String variantName(String filename, int width) {
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        return base + "_w" + width + ".jpg";
+    }
+
+    static boolean isVariant(Path file) {
+        return VARIANT_NAME.matcher(file.getFileName().toString()).matches();
+    }
+
+    // Decodes the original once and writes every variant, largest first, each scaled from the last
+    void createVariants(Path original) {
+        if (widths.length == 0 || !Files.exists(original)) {
+            return;
+        }
+        BufferedImage image;
+        try {
+            image = decode(original, widths[widths.length - 1]);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not decode {}: {}", original, e.getMessage());
+            image = null;
+        }
+        if (image == null) {
+            // Only decode failures are remembered; a failed write is retried on the next request
+            unprocessable.put(original.toAbsolutePath().toString(), Boolean.TRUE);
+            return;
+        }
+        try {
+            BufferedImage current = flatten(image);
+            for (int i = widths.length - 1; i >= 0; i--) {
+                current = scaleToWidth(current, widths[i]);
+                writeJpeg(current, variantPath(original, widths[i]));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not create image variants for {}: {}", original, e.getMessage());
+        }
+        // The original may have been deleted while this job ran; do not leave its variants behind
+        if (!Files.exists(original)) {
+            deleteVariants(original);
+        }
+    }
+
+    // --- Helper Methods ---
+    private static Path variantPath(Path original, int width) {
+        return original.resolveSibling(variantName(original.getFileName().toString(), width));
+    }
+
+    // Subsamples while decoding, keeping about twice the largest width, so a big photo never sits
+    // in memory at full resolution, and returns the image upright
+    private static BufferedImage decode(Path file, int largestWidth) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, false);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    log.warn("Not creating variants of {}: image is too large", file);
+                    return null;
+                }
+                int orientation = exifOrientation(reader);
+                // Orientations 5-8 swap the axes, so the displayed width is the stored height
+                int displayWidth = orientation >= 5 ? height : width;
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, displayWidth / (2 * largestWidth));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return upright(reader.read(0, param), orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // EXIF orientation (1-8) from a JPEG's APP1 segment; 1 (as stored) when absent or unreadable
+    private static int exifOrientation(ImageReader reader) {
+        try {
+            IIOMetadata metadata = reader.getImageMetadata(0);
+            if (metadata == null || !JPEG_METADATA_FORMAT.equals(metadata.getNativeMetadataFormatName())) {
+                return 1;
+            }
+            IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(JPEG_METADATA_FORMAT);
+            NodeList markers = root.getElementsByTagName("unknown");
+            for (int i = 0; i < markers.getLength(); i++) {
+                IIOMetadataNode marker = (IIOMetadataNode) markers.item(i);
+                if (APP1_MARKER.equals(marker.getAttribute("MarkerTag")) && marker.getUserObject() instanceof byte[] data) {
+                    int orientation = orientationTag(data);
+                    if (orientation > 0) {
+                        return orientation;
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Ignoring unreadable image metadata: {}", e.getMessage());
+        }
+        return 1;
+    }
+
+    // Reads the orientation entry of IFD0 from "Exif\0\0" followed by a TIFF header; 0 if missing
+    private static int orientationTag(byte[] exif) {
+        int tiff = 6;
+        if (exif.length < tiff + 8 || exif[0] != 'E' || exif[1] != 'x' || exif[2] != 'i' || exif[3] != 'f') {
+            return 0;
+        }
+        boolean littleEndian = exif[tiff] == 'I';
+        long ifd = tiff + (readInt(exif, tiff + 4, littleEndian) & 0xFFFFFFFFL);
+        if (ifd + 2 > exif.length) {
+            return 0;
+        }
+        int entries = readShort(exif, (int) ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > exif.length) {
+                break;
+            }
+            if (readShort(exif, entry, littleEndian) == EXIF_ORIENTATION_TAG) {
+                int value = readShort(exif, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? b0 | b1 << 8 : b0 << 8 | b1;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean littleEndian) {
+        int high = readShort(data, littleEndian ? offset + 2 : offset, littleEndian);
+        int low = readShort(data, littleEndian ? offset : offset + 2, littleEndian);
+        return high << 16 | low;
+    }
+
+    // Applies the EXIF orientation, so the variant looks like the original does in a browser
+    private static BufferedImage upright(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform;
+        switch (orientation) {
+            case 2: transform = new AffineTransform(-1, 0, 0, 1, w, 0); break;   // mirrored
+            case 3: transform = new AffineTransform(-1, 0, 0, -1, w, h); break;  // rotated 180
+            case 4: transform = new AffineTransform(1, 0, 0, -1, 0, h); break;   // flipped
+            case 5: transform = new AffineTransform(0, 1, 1, 0, 0, 0); break;    // transposed
+            case 6: transform = new AffineTransform(0, 1, -1, 0, h, 0); break;   // rotate 90 clockwise
+            case 7: transform = new AffineTransform(0, -1, -1, 0, h, w); break;  // transversed
+            default: transform = new AffineTransform(0, -1, 1, 0, 0, w); break;  // rotate 90 counter-clockwise
+        }
+        boolean swapped = orientation >= 5;
+        BufferedImage rotated = new BufferedImage(swapped ? h : w, swapped ? w : h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = rotated.createGraphics();
+        g.drawImage(image, transform, null);
+        g.dispose();
+        return rotated;
+    }
+
+    // JPEG has no alpha channel
+    private static BufferedImage flatten(BufferedImage image) {
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return rgb;
+    }
+
+    // Halves repeatedly before the last step; one big bilinear step drops most of the source pixels
+    private static BufferedImage scaleToWidth(BufferedImage image, int targetWidth) {
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= targetWidth) {
+            current = resize(current, current.getWidth() / 2, Math.max(1, current.getHeight() / 2));
+        }
+        if (current.getWidth() > targetWidth) {
+            int height = (int) Math.max(1, Math.round((double) current.getHeight() * targetWidth / current.getWidth()));
+            current = resize(current, targetWidth, height);
+        }
+        return current;
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+
+    // Written to a temporary file and moved into place, so a concurrent request never reads half a file
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), ".variant", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
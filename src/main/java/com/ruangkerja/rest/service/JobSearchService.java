@@ -0,0 +1,275 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.entity.Job;
+import com.ruangkerja.rest.repository.JobRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Chooses how active job listings are searched. Keyword searches use a MySQL FULLTEXT index over
+ * title, description and skills ({@code MATCH ... AGAINST} in boolean mode) instead of
+ * {@code LIKE '%...%'} scans of the TEXT column. The index is created at startup because
+ * Hibernate's schema update cannot declare FULLTEXT indexes.
+ *
+ * <p>FULLTEXT matches the start of words, not arbitrary substrings: "script" finds "Scripting"
+ * but not "JavaScript", which the LIKE fallback would. Searches the index would silently widen
+ * (words it does not store) go through LIKE instead.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobSearchService {
+
+    public static final String MODE_FULLTEXT = "fulltext";
+    public static final String MODE_LIKE = "like";
+
+    static final String FULLTEXT_INDEX = "ft_jobs_search";
+
+    // InnoDB's default innodb_ft_min_token_size; replaced by the server's value at startup
+    private static final int DEFAULT_MIN_TOKEN_LENGTH = 3;
+
+    // INFORMATION_SCHEMA.INNODB_FT_DEFAULT_STOPWORD; these words are never indexed
+    private static final Set<String> FULLTEXT_STOPWORDS = Set.of(
+            "a", "about", "an", "are", "as", "at", "be", "by", "com", "de", "en", "for", "from", "how",
+            "i", "in", "is", "it", "la", "of", "on", "or", "that", "the", "this", "to", "was", "what",
+            "when", "where", "who", "will", "with", "und", "www");
+
+    // Labels and bounds for the bucket indexes of JobRepository.SALARY_BUCKET_SQL
+    private static final String[] SALARY_BUCKET_LABELS = {"< 5jt", "5jt - 10jt", "10jt - 20jt", "> 20jt"};
+    private static final Integer[][] SALARY_BUCKET_BOUNDS = {
+            {0, 5_000_000}, {5_000_000, 10_000_000}, {10_000_000, 20_000_000}, {20_000_000, null}};
+
+    private final JobRepository jobRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.jobs.fulltext.enabled:true}")
+    private boolean fullTextEnabled = true;
+
+    private volatile boolean fullTextAvailable;
+    private volatile int minTokenLength = DEFAULT_MIN_TOKEN_LENGTH;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureFullTextIndex() {
+        if (!fullTextEnabled) {
+            return;
+        }
+        try {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.statistics " +
+                    "WHERE table_schema = DATABASE() AND table_name = 'jobs' AND index_name = ?",
+                    Integer.class, FULLTEXT_INDEX);
+            if (existing == null || existing == 0) {
+                log.info("Creating FULLTEXT index {} on jobs(title, description, skills)", FULLTEXT_INDEX);
+                jdbcTemplate.execute("CREATE FULLTEXT INDEX " + FULLTEXT_INDEX + " ON jobs (title, description, skills)");
+            }
+            Integer serverMinTokenLength = jdbcTemplate.queryForObject("SELECT @@innodb_ft_min_token_size", Integer.class);
+            if (serverMinTokenLength != null) {
+                minTokenLength = serverMinTokenLength;
+            }
+            fullTextAvailable = true;
+        } catch (Exception ex) {
+            log.warn("FULLTEXT job search unavailable, falling back to LIKE queries: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the search mode that {@link #findActiveJobs} uses for the given keyword.
+     */
+    public String searchMode(String search) {
+        return toBooleanQuery(search) != null ? MODE_FULLTEXT : MODE_LIKE;
+    }
+
+    public Page<Job> findActiveJobs(String search, String type, String province, String city, int page, int size) {
+        String booleanQuery = toBooleanQuery(search);
+        if (booleanQuery != null) {
+            // Native query orders by created_at itself; a Sort here would be rendered as a JPQL path
+            return jobRepository.findActiveJobsByFullText(booleanQuery, type, province, city, PageRequest.of(page, size));
+        }
+
+        PageRequest pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+        if (isBlank(search) && isBlank(type) && isBlank(province) && isBlank(city)) {
+            return jobRepository.findActiveJobs(pageable);
+        }
+        return jobRepository.findActiveJobsWithFilters(search, type, province, city, pageable);
+    }
+
+    /**
+     * Returns the active jobs that come after {@code cursor} in newest-first order, seeking on
+     * (createdAt, id) so every page costs the same regardless of depth. A blank cursor starts
+     * from the newest job.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public JobSlice findActiveJobsAfter(String search, String type, String province, String city,
+                                        String cursor, int size) {
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        if (!isBlank(cursor)) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                afterCreatedAt = LocalDateTime.parse(raw.substring(0, sep));
+                afterId = Long.parseLong(raw.substring(sep + 1));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid jobs cursor", ex);
+            }
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        String booleanQuery = toBooleanQuery(search);
+        List<Job> jobs = booleanQuery != null
+                ? jobRepository.findActiveJobsByFullTextAfter(booleanQuery, type, province, city, afterCreatedAt, afterId, size + 1)
+                : jobRepository.findActiveJobsAfter(search, type, province, city, afterCreatedAt, afterId, size + 1);
+
+        String nextCursor = null;
+        if (jobs.size() > size) {
+            jobs = jobs.subList(0, size);
+            Job last = jobs.get(size - 1);
+            String raw = last.getCreatedAt() + "|" + last.getId();
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        return new JobSlice(jobs, nextCursor);
+    }
+
+    /**
+     * Counts active jobs per type, province, city and salary bucket for the current search, from a
+     * single grouped query. Each facet applies the other selected filters but not its own, so the
+     * counts show what selecting a different value would return.
+     */
+    public Map<String, Object> countFacets(String search, String type, String province, String city) {
+        String booleanQuery = toBooleanQuery(search);
+        List<Object[]> rows = booleanQuery != null
+                ? jobRepository.countActiveJobFacetsByFullText(booleanQuery)
+                : jobRepository.countActiveJobFacets(search);
+
+        Map<String, Long> types = new HashMap<>();
+        Map<String, Long> provinces = new HashMap<>();
+        Map<String, Long> cities = new HashMap<>();
+        long[] salaryCounts = new long[SALARY_BUCKET_LABELS.length];
+        long unspecifiedSalary = 0;
+        long total = 0;
+
+        for (Object[] row : rows) {
+            String rowType = (String) row[0];
+            String rowProvince = (String) row[1];
+            String rowCity = (String) row[2];
+            int bucket = ((Number) row[3]).intValue();
+            long count = ((Number) row[4]).longValue();
+
+            boolean typeOk = matches(type, rowType);
+            boolean provinceOk = matches(province, rowProvince);
+            boolean cityOk = matches(city, rowCity);
+
+            if (provinceOk && cityOk && rowType != null) {
+                types.merge(rowType, count, Long::sum);
+            }
+            if (typeOk && cityOk && rowProvince != null) {
+                provinces.merge(rowProvince, count, Long::sum);
+            }
+            if (typeOk && provinceOk && rowCity != null) {
+                cities.merge(rowCity, count, Long::sum);
+            }
+            if (typeOk && provinceOk && cityOk) {
+                total += count;
+                if (bucket >= 0) {
+                    salaryCounts[bucket] += count;
+                } else {
+                    unspecifiedSalary += count;
+                }
+            }
+        }
+
+        List<Map<String, Object>> salary = new ArrayList<>();
+        for (int i = 0; i < SALARY_BUCKET_LABELS.length; i++) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("value", SALARY_BUCKET_LABELS[i]);
+            entry.put("min", SALARY_BUCKET_BOUNDS[i][0]);
+            entry.put("max", SALARY_BUCKET_BOUNDS[i][1]);
+            entry.put("count", salaryCounts[i]);
+            salary.add(entry);
+        }
+        Map<String, Object> unspecified = new HashMap<>();
+        unspecified.put("value", "unspecified");
+        unspecified.put("count", unspecifiedSalary);
+        salary.add(unspecified);
+
+        Map<String, Object> facets = new HashMap<>();
+        facets.put("type", toFacetValues(types));
+        facets.put("province", toFacetValues(provinces));
+        facets.put("city", toFacetValues(cities));
+        facets.put("salary", salary);
+        facets.put("total", total);
+        return facets;
+    }
+
+    // --- Helper Methods ---
+    private static boolean matches(String filter, String value) {
+        return isBlank(filter) || filter.equalsIgnoreCase(value);
+    }
+
+    private static List<Map<String, Object>> toFacetValues(Map<String, Long> counts) {
+        List<Map<String, Object>> values = new ArrayList<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(e -> {
+                    Map<String, Object> value = new HashMap<>();
+                    value.put("value", e.getKey());
+                    value.put("count", e.getValue());
+                    values.add(value);
+                });
+        return values;
+    }
+
+    /**
+     * Turns a keyword search into a boolean-mode query requiring every word as a word prefix.
+     * Returns null, meaning LIKE, when the index is missing or would drop a required word: one
+     * shorter than {@code innodb_ft_min_token_size} or an InnoDB stopword.
+     */
+    String toBooleanQuery(String search) {
+        if (!fullTextAvailable || isBlank(search)) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        for (String word : search.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (word.length() < minTokenLength || FULLTEXT_STOPWORDS.contains(word)) {
+                return null;
+            }
+            terms.add("+" + word + "*");
+        }
+        return terms.isEmpty() ? null : String.join(" ", terms);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class JobSlice {
+        private final List<Job> jobs;
+        private final String nextCursor;
+    }
+}
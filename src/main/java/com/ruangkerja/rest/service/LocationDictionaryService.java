@@ -0,0 +1,98 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.repository.CandidateRepository;
+import com.ruangkerja.rest.repository.CompanyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Province and city dropdown values for the company and candidate filters. Values come from
+ * {@code SELECT DISTINCT} projections instead of loading whole profiles, and are cached until
+ * the controllers report a profile write for that side. Cities are only looked up and cached for
+ * provinces in the cached province list, so made-up names cannot grow the cache.
+ */
+@Service
+@RequiredArgsConstructor
+public class LocationDictionaryService {
+
+    private final CompanyRepository companyRepository;
+    private final CandidateRepository candidateRepository;
+
+    private final Map<String, List<String>> companyCache = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> candidateCache = new ConcurrentHashMap<>();
+    private final AtomicLong companyGeneration = new AtomicLong();
+    private final AtomicLong candidateGeneration = new AtomicLong();
+
+    public List<String> getCompanyProvinces() {
+        return cached(companyCache, companyGeneration, "", companyRepository::findDistinctProvinces);
+    }
+
+    public List<String> getCompanyCities(String province) {
+        String known = knownProvince(getCompanyProvinces(), province);
+        if (known == null) {
+            return List.of();
+        }
+        return cached(companyCache, companyGeneration, known, () -> companyRepository.findDistinctCitiesByProvince(known));
+    }
+
+    public List<String> getCandidateProvinces() {
+        return cached(candidateCache, candidateGeneration, "", candidateRepository::findDistinctProvinces);
+    }
+
+    public List<String> getCandidateCities(String province) {
+        String known = knownProvince(getCandidateProvinces(), province);
+        if (known == null) {
+            return List.of();
+        }
+        return cached(candidateCache, candidateGeneration, known, () -> candidateRepository.findDistinctCitiesByProvince(known));
+    }
+
+    // Called after a company profile is created, updated or deleted
+    public void invalidateCompanies() {
+        companyGeneration.incrementAndGet();
+        companyCache.clear();
+    }
+
+    // Called after a candidate profile is created, updated or deleted
+    public void invalidateCandidates() {
+        candidateGeneration.incrementAndGet();
+        candidateCache.clear();
+    }
+
+    // --- Helper Methods ---
+    // The stored spelling of the province; matched ignoring case like the MySQL collation does
+    private static String knownProvince(List<String> provinces, String province) {
+        if (province == null) {
+            return null;
+        }
+        for (String known : provinces) {
+            if (known.equalsIgnoreCase(province)) {
+                return known;
+            }
+        }
+        return null;
+    }
+
+    // Key "" holds the province list; any other key is the province whose cities are cached
+    private static List<String> cached(Map<String, List<String>> cache, AtomicLong generation, String key,
+                                       Supplier<List<String>> loader) {
+        List<String> hit = cache.get(key);
+        if (hit != null) {
+            return hit;
+        }
+        long loadedAt = generation.get();
+        List<String> loaded = List.copyOf(loader.get());
+        cache.put(key, loaded);
+        // A write during the load may have been missed; don't keep the stale list
+        if (generation.get() != loadedAt) {
+            cache.remove(key, loaded);
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,299 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.entity.Conversation;
+import com.ruangkerja.rest.entity.Message;
+import com.ruangkerja.rest.entity.MessageArchiveSegment;
+import com.ruangkerja.rest.entity.User;
+import com.ruangkerja.rest.repository.ConversationRepository;
+import com.ruangkerja.rest.repository.MessageArchiveSegmentRepository;
+import com.ruangkerja.rest.repository.MessageRepository;
+import com.ruangkerja.rest.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Archive tier for chat history. Messages older than {@code app.chat.archive.max-age-days} are
+ * moved out of the hot {@code messages} table into compressed per-conversation segments
+ * ({@link MessageArchiveSegment}, see {@link MessageSegmentCodec}), which keeps the table and
+ * its indexes sized to recent traffic. A conversation's last message stays hot because the
+ * conversation references it, so archived messages always precede every hot message of their
+ * thread; that lets readers page across both tiers by appending one to the other.
+ *
+ * <p>Each segment is written and its rows deleted in one transaction; if another node archived
+ * the same rows first the delete comes up short and the transaction is rolled back.
+ */
+@Service
+@Slf4j
+public class MessageArchiveService {
+
+    private static final int CONVERSATION_BATCH = 100;
+    // Segments fetched per query while filling a window
+    private static final int SEGMENT_FETCH = 2;
+
+    private final MessageRepository messageRepository;
+    private final MessageArchiveSegmentRepository segmentRepository;
+    private final ConversationRepository conversationRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.chat.archive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.chat.archive.max-age-days:180}")
+    private int maxAgeDays = 180;
+
+    @Value("${app.chat.archive.segment-size:500}")
+    private int segmentSize = 500;
+
+    @Value("${app.chat.archive.interval-ms:3600000}")
+    private long intervalMs = 3600000;
+
+    private ScheduledExecutorService archiver;
+
+    public MessageArchiveService(MessageRepository messageRepository,
+                                 MessageArchiveSegmentRepository segmentRepository,
+                                 ConversationRepository conversationRepository,
+                                 UserRepository userRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.messageRepository = messageRepository;
+        this.segmentRepository = segmentRepository;
+        this.conversationRepository = conversationRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        archiver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "message-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        archiver.scheduleWithFixedDelay(this::safeArchive, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (archiver != null) {
+            archiver.shutdownNow();
+        }
+    }
+
+    /**
+     * Moves messages created before {@code cutoff} into archive segments.
+     *
+     * @return the number of messages archived
+     */
+    public int archiveOlderThan(LocalDateTime cutoff) {
+        int archived = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<Long> conversationIds = messageRepository.findConversationsWithMessagesBefore(cutoff, afterId, CONVERSATION_BATCH);
+            for (Long conversationId : conversationIds) {
+                archived += archiveConversation(conversationId, cutoff);
+                afterId = conversationId;
+            }
+            if (conversationIds.size() < CONVERSATION_BATCH) {
+                return archived;
+            }
+        }
+    }
+
+    /**
+     * Archived messages right before the cursor, newest first; the newest archived ones when
+     * the cursor is null.
+     */
+    public List<Message> findOlder(Conversation conversation, LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        List<Message> result = new ArrayList<>();
+        for (int page = 0; result.size() < limit; page++) {
+            List<MessageArchiveSegment> segments = segmentRepository.findSegmentsBefore(
+                    conversation.getId(), beforeCreatedAt, beforeId, PageRequest.of(page, SEGMENT_FETCH));
+            for (MessageArchiveSegment segment : segments) {
+                List<Message> messages = MessageSegmentCodec.decode(segment.getPayload());
+                for (int i = messages.size() - 1; i >= 0 && result.size() < limit; i--) {
+                    Message message = messages.get(i);
+                    if (beforeCreatedAt == null || isBefore(message, beforeCreatedAt, beforeId)) {
+                        result.add(message);
+                    }
+                }
+            }
+            if (segments.size() < SEGMENT_FETCH) {
+                break;
+            }
+        }
+        return attach(conversation, result);
+    }
+
+    /**
+     * Archived messages right after the cursor, oldest first.
+     */
+    public List<Message> findNewer(Conversation conversation, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        List<Message> result = new ArrayList<>();
+        for (int page = 0; result.size() < limit; page++) {
+            List<MessageArchiveSegment> segments = segmentRepository.findSegmentsAfter(
+                    conversation.getId(), afterCreatedAt, afterId, PageRequest.of(page, SEGMENT_FETCH));
+            for (MessageArchiveSegment segment : segments) {
+                for (Message message : MessageSegmentCodec.decode(segment.getPayload())) {
+                    if (result.size() < limit && isBefore(afterCreatedAt, afterId, message)) {
+                        result.add(message);
+                    }
+                }
+            }
+            if (segments.size() < SEGMENT_FETCH) {
+                break;
+            }
+        }
+        return attach(conversation, result);
+    }
+
+    /**
+     * Archived messages at {@code offset} from the start of the thread, oldest first.
+     */
+    public List<Message> findRange(Conversation conversation, long offset, int limit) {
+        List<Message> result = new ArrayList<>();
+        long skipped = 0;
+        for (Object[] row : segmentRepository.findSegmentSizes(conversation.getId())) {
+            int count = ((Number) row[1]).intValue();
+            if (skipped + count <= offset) {
+                skipped += count;
+                continue;
+            }
+            List<Message> messages = MessageSegmentCodec.decode(
+                    segmentRepository.findById((Long) row[0]).orElseThrow().getPayload());
+            int from = (int) Math.max(0, offset - skipped);
+            result.addAll(messages.subList(from, Math.min(messages.size(), from + limit - result.size())));
+            skipped += count;
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return attach(conversation, result);
+    }
+
+    public Optional<Message> findArchived(Conversation conversation, Long messageId) {
+        for (MessageArchiveSegment segment : segmentRepository.findSegmentsSpanning(conversation.getId(), messageId)) {
+            for (Message message : MessageSegmentCodec.decode(segment.getPayload())) {
+                if (message.getId().equals(messageId)) {
+                    return Optional.of(attach(conversation, List.of(message)).get(0));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public long countArchived(Long conversationId) {
+        return segmentRepository.countArchivedMessages(conversationId);
+    }
+
+    // --- Helper Methods ---
+    private void safeArchive() {
+        try {
+            int archived = archiveOlderThan(LocalDateTime.now().minusDays(maxAgeDays));
+            if (archived > 0) {
+                log.info("Archived {} messages older than {} days", archived, maxAgeDays);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Message archiving failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private int archiveConversation(Long conversationId, LocalDateTime cutoff) {
+        int archived = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> {
+                Conversation conversation = conversationRepository.findById(conversationId).orElse(null);
+                if (conversation == null) {
+                    return 0;
+                }
+                Long lastMessageId = conversation.getLastMessage() != null ? conversation.getLastMessage().getId() : -1L;
+                List<Message> batch = messageRepository.findArchivableMessages(conversationId, cutoff, lastMessageId, segmentSize);
+                if (batch.isEmpty()) {
+                    return 0;
+                }
+                segmentRepository.save(segment(conversation, batch));
+                Set<Long> ids = batch.stream().map(Message::getId).collect(Collectors.toSet());
+                if (messageRepository.deleteByIds(ids) != batch.size()) {
+                    // Another node archived some of these rows first
+                    status.setRollbackOnly();
+                    return 0;
+                }
+                return batch.size();
+            });
+            archived += moved != null ? moved : 0;
+            if (moved == null || moved < segmentSize) {
+                return archived;
+            }
+        }
+    }
+
+    private static MessageArchiveSegment segment(Conversation conversation, List<Message> batch) {
+        Message first = batch.get(0);
+        Message last = batch.get(batch.size() - 1);
+        MessageArchiveSegment segment = new MessageArchiveSegment();
+        segment.setConversation(conversation);
+        segment.setFirstMessageId(first.getId());
+        segment.setFirstCreatedAt(first.getCreatedAt());
+        segment.setLastMessageId(last.getId());
+        segment.setLastCreatedAt(last.getCreatedAt());
+        segment.setMinMessageId(batch.stream().mapToLong(Message::getId).min().getAsLong());
+        segment.setMaxMessageId(batch.stream().mapToLong(Message::getId).max().getAsLong());
+        segment.setMessageCount(batch.size());
+        segment.setPayload(MessageSegmentCodec.encode(batch));
+        return segment;
+    }
+
+    // Replaces the id-only users of decoded messages with real ones, in one query
+    private List<Message> attach(Conversation conversation, List<Message> messages) {
+        if (messages.isEmpty()) {
+            return messages;
+        }
+        Set<Long> userIds = new HashSet<>();
+        for (Message message : messages) {
+            userIds.add(message.getSender().getId());
+            userIds.add(message.getReceiver().getId());
+        }
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (Message message : messages) {
+            message.setConversation(conversation);
+            message.setSender(users.getOrDefault(message.getSender().getId(), message.getSender()));
+            message.setReceiver(users.getOrDefault(message.getReceiver().getId(), message.getReceiver()));
+        }
+        return Collections.unmodifiableList(messages);
+    }
+
+    // message < (createdAt, id) in thread order
+    private static boolean isBefore(Message message, LocalDateTime createdAt, Long id) {
+        int cmp = message.getCreatedAt().compareTo(createdAt);
+        return cmp < 0 || (cmp == 0 && message.getId() < id);
+    }
+
+    // (createdAt, id) < message in thread order
+    private static boolean isBefore(LocalDateTime createdAt, Long id, Message message) {
+        int cmp = createdAt.compareTo(message.getCreatedAt());
+        return cmp < 0 || (cmp == 0 && id < message.getId());
+    }
+}
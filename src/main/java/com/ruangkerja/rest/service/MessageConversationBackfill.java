@@ -0,0 +1,78 @@
+package com.ruangkerja.rest.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * One-off migration for messages written before {@code messages.conversation_id} existed.
+ * Hibernate's schema update adds the column but cannot fill it, so at startup this creates any
+ * missing conversations for such messages and links the messages to them in id-range batches,
+ * keeping each UPDATE short. Once every row is linked it only costs one query per startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MessageConversationBackfill {
+
+    private static final String PAIR_MATCHES =
+            "((c.user1_id = m.sender_id AND c.user2_id = m.receiver_id) OR " +
+            " (c.user1_id = m.receiver_id AND c.user2_id = m.sender_id))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.chat.conversation-backfill.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.chat.conversation-backfill.batch-size:5000}")
+    private int batchSize = 5000;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Map<String, Object> range = jdbcTemplate.queryForMap(
+                    "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM messages WHERE conversation_id IS NULL");
+            if (range.get("min_id") == null) {
+                return;
+            }
+            long minId = ((Number) range.get("min_id")).longValue();
+            long maxId = ((Number) range.get("max_id")).longValue();
+
+            int created = jdbcTemplate.update(
+                    "INSERT INTO conversations (user1_id, user2_id, created_at, updated_at) " +
+                    "SELECT LEAST(m.sender_id, m.receiver_id), GREATEST(m.sender_id, m.receiver_id), " +
+                    "       MIN(m.created_at), MAX(m.created_at) " +
+                    "FROM messages m WHERE m.conversation_id IS NULL AND NOT EXISTS " +
+                    "  (SELECT 1 FROM conversations c WHERE " + PAIR_MATCHES + ") " +
+                    "GROUP BY LEAST(m.sender_id, m.receiver_id), GREATEST(m.sender_id, m.receiver_id)");
+
+            long linked = 0;
+            for (long from = minId; from <= maxId; from += batchSize) {
+                linked += jdbcTemplate.update(
+                        "UPDATE messages m JOIN conversations c ON " + PAIR_MATCHES + " " +
+                        "SET m.conversation_id = c.id " +
+                        "WHERE m.conversation_id IS NULL AND m.id BETWEEN ? AND ?",
+                        from, from + batchSize - 1);
+            }
+
+            jdbcTemplate.update(
+                    "UPDATE conversations c SET c.last_message_id = " +
+                    "  (SELECT m.id FROM messages m WHERE m.conversation_id = c.id " +
+                    "   ORDER BY m.created_at DESC, m.id DESC LIMIT 1) " +
+                    "WHERE c.last_message_id IS NULL");
+
+            log.info("Linked {} messages to conversations ({} conversations created)", linked, created);
+        } catch (Exception ex) {
+            log.warn("Message conversation backfill failed, will retry on next startup: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.entity.Message;
+import com.ruangkerja.rest.entity.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary format of archived message segments: a version byte and message count, then the fields
+ * of each message in a fixed order, all deflate-compressed. Chat text in a thread repeats a lot,
+ * so a segment is typically a fraction of the rows and index entries it replaces.
+ *
+ * <p>Decoded messages carry users with only their id set; callers attach the real users.
+ */
+final class MessageSegmentCodec {
+
+    private static final int VERSION = 1;
+
+    private MessageSegmentCodec() {
+    }
+
+    static byte[] encode(List<Message> messages) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(
+                new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_COMPRESSION)))) {
+            out.writeByte(VERSION);
+            out.writeInt(messages.size());
+            for (Message message : messages) {
+                out.writeLong(message.getId());
+                out.writeLong(message.getSender().getId());
+                out.writeLong(message.getReceiver().getId());
+                writeTime(out, message.getCreatedAt());
+                writeTime(out, message.getUpdatedAt());
+                out.writeByte(message.getMessageType().ordinal());
+                out.writeBoolean(Boolean.TRUE.equals(message.getIsRead()));
+                writeString(out, message.getContent());
+                writeString(out, message.getFileUrl());
+                writeString(out, message.getFileName());
+                out.writeLong(message.getFileSize() != null ? message.getFileSize() : -1);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<Message> decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported message segment version " + version);
+            }
+            int count = in.readInt();
+            List<Message> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Message message = new Message();
+                message.setId(in.readLong());
+                message.setSender(user(in.readLong()));
+                message.setReceiver(user(in.readLong()));
+                message.setCreatedAt(readTime(in));
+                message.setUpdatedAt(readTime(in));
+                message.setMessageType(Message.MessageType.values()[in.readUnsignedByte()]);
+                message.setIsRead(in.readBoolean());
+                message.setContent(readString(in));
+                message.setFileUrl(readString(in));
+                message.setFileName(readString(in));
+                long fileSize = in.readLong();
+                message.setFileSize(fileSize >= 0 ? fileSize : null);
+                messages.add(message);
+            }
+            return messages;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // --- Helper Methods ---
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        return LocalDateTime.ofEpochSecond(seconds, in.readInt(), ZoneOffset.UTC);
+    }
+
+    // Length-prefixed UTF-8, -1 for null
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
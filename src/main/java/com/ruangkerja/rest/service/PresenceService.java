@@ -0,0 +1,216 @@
+package com.ruangkerja.rest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ruangkerja.rest.repository.ConversationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Reports which users are connected over STOMP and when they were last seen. Online state comes
+ * from the {@link SimpUserRegistry}, which in relay mode spans all nodes. Last-seen is local to
+ * this node: every inbound frame, heartbeats included, refreshes it (see WebSocketConfig), and
+ * users not seen here for a day are forgotten, so a user last seen on another node or long ago
+ * reports no last-seen time.
+ *
+ * <p>Users whose online state changed are collected and, once per
+ * {@code app.chat.presence.flush-interval-ms}, each connected conversation partner receives one
+ * {@code /queue/presence} message listing all the changes relevant to them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceService {
+
+    public static final String PRESENCE_DESTINATION = "/queue/presence";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry simpUserRegistry;
+    private final ConversationRepository conversationRepository;
+
+    private static final int MAX_TRACKED_USERS = 100_000;
+
+    @Value("${app.chat.presence.flush-interval-ms:1000}")
+    private long flushIntervalMs = 1000;
+
+    // Milliseconds; replaced in tests
+    LongSupplier clock = System::currentTimeMillis;
+
+    // user id -> epoch millis; online users keep refreshing theirs through heartbeats
+    private final Cache<Long, Long> lastSeen = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_USERS)
+            .expireAfterWrite(Duration.ofHours(24))
+            .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.getAsLong()))
+            .build();
+    // Users whose online state changed since the last flush
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "presence-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::safeFlush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Long userId = userId(event.getUser());
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (userId == null || sessionId == null) {
+            return;
+        }
+        lastSeen.put(userId, clock.getAsLong());
+        if (onlySession(userId, sessionId)) {
+            changed.add(userId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Long userId = userId(event.getUser());
+        if (userId == null) {
+            return;
+        }
+        lastSeen.put(userId, clock.getAsLong());
+        if (onlySession(userId, event.getSessionId())) {
+            changed.add(userId);
+        }
+    }
+
+    // Called for every inbound STOMP frame, including heartbeats
+    public void touch(Principal principal) {
+        Long userId = userId(principal);
+        if (userId != null) {
+            lastSeen.put(userId, clock.getAsLong());
+        }
+    }
+
+    public boolean isOnline(Long userId) {
+        return simpUserRegistry.getUser(userId.toString()) != null;
+    }
+
+    public List<Map<String, Object>> getPresence(Collection<Long> userIds) {
+        List<Map<String, Object>> result = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            result.add(toPresence(userId));
+        }
+        return result;
+    }
+
+    /**
+     * Sends pending presence changes to the affected users' conversation partners.
+     */
+    public void flush() {
+        List<Long> batch = new ArrayList<>();
+        for (Iterator<Long> it = changed.iterator(); it.hasNext(); ) {
+            batch.add(it.next());
+            it.remove();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // recipient -> changed users they share a conversation with
+        Map<Long, List<Long>> byRecipient = new HashMap<>();
+        Set<Long> changedIds = Set.copyOf(batch);
+        for (Object[] pair : conversationRepository.findParticipantIdsForUsers(batch)) {
+            Long user1 = (Long) pair[0];
+            Long user2 = (Long) pair[1];
+            if (changedIds.contains(user1)) {
+                byRecipient.computeIfAbsent(user2, k -> new ArrayList<>()).add(user1);
+            }
+            if (changedIds.contains(user2)) {
+                byRecipient.computeIfAbsent(user1, k -> new ArrayList<>()).add(user2);
+            }
+        }
+
+        byRecipient.forEach((recipient, users) -> {
+            // The registry spans all nodes in relay mode, so this also skips partners offline elsewhere
+            if (simpUserRegistry.getUser(recipient.toString()) == null) {
+                return;
+            }
+            messagingTemplate.convertAndSendToUser(recipient.toString(), PRESENCE_DESTINATION, getPresence(users));
+        });
+    }
+
+    // --- Helper Methods ---
+    private void safeFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Presence fan-out failed: {}", e.getMessage());
+        }
+    }
+
+    // Whether this session is the user's only one on any node, so opening or closing it changes
+    // their online state. The registry may or may not have applied this same event yet; flushes
+    // report the current state, so a race here can only cause a redundant update.
+    private boolean onlySession(Long userId, String sessionId) {
+        SimpUser user = simpUserRegistry.getUser(userId.toString());
+        return user == null || user.getSessions().stream().allMatch(session -> session.getId().equals(sessionId));
+    }
+
+    private Map<String, Object> toPresence(Long userId) {
+        Long seen = lastSeen.getIfPresent(userId);
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("userId", userId);
+        entry.put("online", isOnline(userId));
+        entry.put("lastSeen", seen != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(seen), ZoneId.systemDefault())
+                : null);
+        return entry;
+    }
+
+    // Only numeric principals are real users; WebSocketConfig falls back to random UUIDs
+    private static Long userId(Principal principal) {
+        if (principal == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(principal.getName());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.dto.ChatMessageWebSocketDto;
+import com.ruangkerja.rest.entity.Conversation;
+import com.ruangkerja.rest.entity.Message;
+import com.ruangkerja.rest.repository.ConversationRepository;
+import com.ruangkerja.rest.repository.MessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read receipts. Reading is recorded as a per-participant high-water mark on the conversation
+ * (the newest message id read) rather than by flagging every message row. Read frames are
+ * coalesced per reader and partner: within one {@code app.chat.receipts.flush-interval-ms} only
+ * the highest message id is kept, then the mark is advanced with one guarded UPDATE and the
+ * partner gets a single "read" message on {@code /queue/receipts}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReadReceiptService {
+
+    public static final String RECEIPTS_DESTINATION = "/queue/receipts";
+    public static final String TYPE_READ = "read";
+
+    // Pending mark meaning "everything currently in the conversation"
+    private static final long LATEST = Long.MAX_VALUE;
+
+    private final ConversationRepository conversationRepository;
+    private final MessageRepository messageRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${app.chat.receipts.flush-interval-ms:500}")
+    private long flushIntervalMs = 500;
+
+    // "readerId:partnerId" -> highest message id read since the last flush
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "read-receipt-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::safeFlush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        safeFlush();
+    }
+
+    /**
+     * Records that {@code readerId} has read the conversation with {@code partnerId} up to and
+     * including {@code messageId}, or up to its newest message when {@code messageId} is null.
+     */
+    public void markRead(Long readerId, Long partnerId, Long messageId) {
+        if (readerId == null || partnerId == null) {
+            return;
+        }
+        pending.merge(readerId + ":" + partnerId, messageId != null ? messageId : LATEST, Math::max);
+    }
+
+    /**
+     * Like {@link #markRead} but applied before returning, for callers that read the thread
+     * again straight after (the REST mark-read endpoint).
+     */
+    public void markReadNow(Long readerId, Long partnerId, Long messageId) {
+        if (readerId == null || partnerId == null) {
+            return;
+        }
+        apply(readerId, partnerId, messageId != null ? messageId : LATEST);
+    }
+
+    /**
+     * Applies pending marks and pushes one receipt per advanced mark.
+     */
+    public void flush() {
+        for (String key : List.copyOf(pending.keySet())) {
+            Long messageId = pending.remove(key);
+            if (messageId == null) {
+                continue;
+            }
+            int sep = key.indexOf(':');
+            apply(Long.valueOf(key.substring(0, sep)), Long.valueOf(key.substring(sep + 1)), messageId);
+        }
+    }
+
+    // --- Helper Methods ---
+    private void safeFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Read receipt flush failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(Long readerId, Long partnerId, long messageId) {
+        Optional<Conversation> found = conversationRepository.findConversationBetweenUsers(readerId, partnerId);
+        if (found.isEmpty()) {
+            return;
+        }
+        Long conversationId = found.get().getId();
+
+        Long markId;
+        if (messageId == LATEST) {
+            List<Message> latest = messageRepository.findLatestConversationMessages(conversationId, PageRequest.of(0, 1));
+            if (latest.isEmpty()) {
+                return;
+            }
+            markId = latest.get(0).getId();
+        } else {
+            // Only a message of this conversation may move the mark
+            Optional<Message> message = messageRepository.findById(messageId);
+            if (message.isEmpty() || message.get().getConversation() == null
+                    || !conversationId.equals(message.get().getConversation().getId())) {
+                return;
+            }
+            markId = messageId;
+        }
+
+        boolean readerIsUser1 = readerId.equals(found.get().getUser1().getId());
+        int advanced = readerIsUser1
+                ? conversationRepository.advanceUser1ReadMark(conversationId, markId)
+                : conversationRepository.advanceUser2ReadMark(conversationId, markId);
+        if (advanced == 0) {
+            return;
+        }
+
+        ChatMessageWebSocketDto receipt = new ChatMessageWebSocketDto();
+        receipt.setId(markId);
+        receipt.setSenderId(readerId);
+        receipt.setReceiverId(partnerId);
+        receipt.setCreatedAt(LocalDateTime.now());
+        receipt.setType(TYPE_READ);
+        messagingTemplate.convertAndSendToUser(partnerId.toString(), RECEIPTS_DESTINATION, receipt);
+    }
+}
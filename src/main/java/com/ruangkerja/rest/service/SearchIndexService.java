@@ -0,0 +1,407 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.entity.Candidate;
+import com.ruangkerja.rest.entity.Company;
+import com.ruangkerja.rest.entity.Skill;
+import com.ruangkerja.rest.repository.CandidateRepository;
+import com.ruangkerja.rest.repository.CompanyRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over company and candidate profiles used by the home page search.
+ * The index is built once at startup and kept up to date by the controllers that save or
+ * delete profiles, so search requests never touch the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexService {
+
+    public static final String TYPE_COMPANY = "company";
+    public static final String TYPE_CANDIDATE = "candidate";
+
+    // BM25 parameters and per-field weights applied to term frequencies
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_MATCH_BOOST = 0.7;
+    private static final double FUZZY_MATCH_BOOST = 0.5;
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float SKILL_WEIGHT = 2.0f;
+    private static final float INDUSTRY_WEIGHT = 1.5f;
+    private static final float TEXT_WEIGHT = 1.0f;
+    private static final float MINOR_WEIGHT = 0.5f;
+
+    private final CompanyRepository companyRepository;
+    private final CandidateRepository candidateRepository;
+    private final SearchSuggestService searchSuggestService;
+
+    @Value("${app.search.fuzzy.max-edit-distance:1}")
+    private int fuzzyMaxEditDistance = 1;
+
+    @Value("${app.search.fuzzy.min-term-length:4}")
+    private int fuzzyMinTermLength = 4;
+
+    // Sorted so a query token can be matched as a prefix of the indexed terms
+    private final NavigableMap<String, Set<String>> postings = new TreeMap<>();
+    private final Map<String, IndexedDocument> documents = new HashMap<>();
+    private long totalLength;
+    private FuzzyTermDictionary fuzzyTerms = new FuzzyTermDictionary(fuzzyMaxEditDistance, fuzzyMinTermLength);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Company> companies = companyRepository.findAll();
+        List<Candidate> candidates = candidateRepository.findAllWithSkills();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            fuzzyTerms = new FuzzyTermDictionary(fuzzyMaxEditDistance, fuzzyMinTermLength);
+            searchSuggestService.clear();
+            companies.forEach(this::putCompany);
+            candidates.forEach(this::putCandidate);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built with {} companies and {} candidates", companies.size(), candidates.size());
+    }
+
+    public void indexCompany(Company company) {
+        lock.writeLock().lock();
+        try {
+            putCompany(company);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCompany(Long companyId) {
+        remove(TYPE_COMPANY, companyId);
+    }
+
+    public void indexCandidate(Candidate candidate) {
+        lock.writeLock().lock();
+        try {
+            putCandidate(candidate);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeCandidate(Long candidateId) {
+        remove(TYPE_CANDIDATE, candidateId);
+    }
+
+    /**
+     * Returns one page of profiles matching all tokens of the query, ranked by BM25 over the
+     * weighted profile fields. Each query token matches indexed terms it is a prefix of, so
+     * "soft" still finds "Software", with exact term matches scoring higher. A token with no such
+     * match falls back to indexed terms within a small edit distance ("jakrta" finds "jakarta"),
+     * scored lower still. Only the requested
+     * page is kept in a bounded heap; {@code cursor} is the {@code nextCursor} of the previous page.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public SearchPage search(String query, int limit, String cursor) {
+        Cursor after = cursor == null || cursor.isBlank() ? null : Cursor.decode(cursor);
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new SearchPage(new ArrayList<>(), null);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = score(tokens);
+
+            // Min-heap holding the best `limit` hits after the cursor
+            PriorityQueue<ScoredKey> heap = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+            int remaining = 0;
+            for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                ScoredKey hit = new ScoredKey(entry.getValue(), entry.getKey());
+                if (after != null && hit.compareTo(after.position) <= 0) {
+                    continue;
+                }
+                remaining++;
+                heap.offer(hit);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+            boolean hasMore = remaining > heap.size();
+
+            List<ScoredKey> page = new ArrayList<>(heap);
+            Collections.sort(page);
+
+            List<Map<String, Object>> results = new ArrayList<>(page.size());
+            for (ScoredKey hit : page) {
+                Map<String, Object> result = new HashMap<>(documents.get(hit.key).summary);
+                result.put("score", Math.round(hit.score * 1000.0) / 1000.0);
+                results.add(result);
+            }
+            String nextCursor = hasMore && !page.isEmpty()
+                    ? new Cursor(page.get(page.size() - 1)).encode()
+                    : null;
+            return new SearchPage(results, nextCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Helper Methods ---
+    // Caller must hold the read lock. Documents must match every token (AND semantics).
+    private Map<String, Double> score(List<String> tokens) {
+        double avgLength = documents.isEmpty() ? 1.0 : Math.max(1.0, (double) totalLength / documents.size());
+        int docCount = documents.size();
+
+        Map<String, Double> scores = null;
+        for (String token : tokens) {
+            Map<String, Double> tokenScores = new HashMap<>();
+            for (Map.Entry<String, Set<String>> posting
+                    : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                double boost = posting.getKey().equals(token) ? 1.0 : PREFIX_MATCH_BOOST;
+                scoreTerm(posting.getKey(), posting.getValue(), boost, docCount, avgLength, tokenScores);
+            }
+            if (tokenScores.isEmpty()) {
+                for (Map.Entry<String, Integer> match : fuzzyTerms.lookup(token).entrySet()) {
+                    double boost = FUZZY_MATCH_BOOST / match.getValue();
+                    scoreTerm(match.getKey(), postings.get(match.getKey()), boost, docCount, avgLength, tokenScores);
+                }
+            }
+
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((key, s) -> s + tokenScores.get(key));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private void scoreTerm(String term, Set<String> keys, double boost, int docCount, double avgLength,
+                           Map<String, Double> tokenScores) {
+        double idf = Math.log(1.0 + (docCount - keys.size() + 0.5) / (keys.size() + 0.5));
+        for (String key : keys) {
+            IndexedDocument doc = documents.get(key);
+            double tf = doc.terms.get(term);
+            double norm = K1 * (1 - B + B * doc.length / avgLength);
+            tokenScores.merge(key, boost * idf * tf * (K1 + 1) / (tf + norm), Math::max);
+        }
+    }
+
+    private void putCompany(Company c) {
+        IndexedDocument doc = new IndexedDocument(TYPE_COMPANY, c.getId());
+        doc.addField(c.getCompanyName(), NAME_WEIGHT);
+        doc.addField(c.getIndustry(), INDUSTRY_WEIGHT);
+        doc.addField(c.getHq(), TEXT_WEIGHT);
+        doc.addField(c.getDescription(), TEXT_WEIGHT);
+        doc.addField(c.getEmail(), MINOR_WEIGHT);
+        doc.addField(c.getCompanySize() != null ? String.valueOf(c.getCompanySize()) : null, MINOR_WEIGHT);
+        doc.addField(c.getFoundationDate() != null ? c.getFoundationDate().toString() : null, MINOR_WEIGHT);
+
+        doc.addPhrase(TYPE_COMPANY, c.getCompanyName());
+        doc.addPhrase(SearchSuggestService.TYPE_INDUSTRY, c.getIndustry());
+        doc.addPhrase(SearchSuggestService.TYPE_CITY, c.getCity());
+
+        doc.summary.put("id", c.getId());
+        doc.summary.put("name", c.getCompanyName());
+        doc.summary.put("location", c.getHq());
+        doc.summary.put("type", TYPE_COMPANY);
+
+        put(doc);
+    }
+
+    private void putCandidate(Candidate cand) {
+        IndexedDocument doc = new IndexedDocument(TYPE_CANDIDATE, cand.getId());
+        doc.addField(cand.getFullName(), NAME_WEIGHT);
+        doc.addField(cand.getBiodata(), TEXT_WEIGHT);
+        doc.addField(cand.getEmail(), MINOR_WEIGHT);
+        doc.addField(cand.getCity(), TEXT_WEIGHT);
+        doc.addField(cand.getJobType(), MINOR_WEIGHT);
+        doc.addField(cand.getIndustry(), INDUSTRY_WEIGHT);
+        doc.addField(cand.getEmploymentStatus(), MINOR_WEIGHT);
+
+        doc.addPhrase(TYPE_CANDIDATE, cand.getFullName());
+        doc.addPhrase(SearchSuggestService.TYPE_INDUSTRY, cand.getIndustry());
+        doc.addPhrase(SearchSuggestService.TYPE_CITY, cand.getCity());
+        if (cand.getSkill() != null) {
+            for (Skill skill : cand.getSkill()) {
+                if (skill != null) {
+                    doc.addField(skill.getName(), SKILL_WEIGHT);
+                    doc.addPhrase(SearchSuggestService.TYPE_SKILL, skill.getName());
+                }
+            }
+        }
+
+        doc.summary.put("id", cand.getId());
+        doc.summary.put("fullName", cand.getFullName());
+        doc.summary.put("city", cand.getCity());
+        doc.summary.put("type", TYPE_CANDIDATE);
+
+        put(doc);
+    }
+
+    // Caller must hold the write lock
+    private void put(IndexedDocument doc) {
+        String key = key(doc.type, doc.id);
+        unlink(key);
+        documents.put(key, doc);
+        totalLength += doc.length;
+        for (String term : doc.terms.keySet()) {
+            Set<String> keys = postings.get(term);
+            if (keys == null) {
+                keys = new HashSet<>();
+                postings.put(term, keys);
+                fuzzyTerms.add(term);
+            }
+            keys.add(key);
+        }
+        for (Map.Entry<String, String> phrase : doc.phrases) {
+            searchSuggestService.add(phrase.getKey(), phrase.getValue());
+        }
+    }
+
+    private void remove(String type, Long id) {
+        lock.writeLock().lock();
+        try {
+            unlink(key(type, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void unlink(String key) {
+        IndexedDocument previous = documents.remove(key);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length;
+        for (String term : previous.terms.keySet()) {
+            Set<String> keys = postings.get(term);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    postings.remove(term);
+                    fuzzyTerms.remove(term);
+                }
+            }
+        }
+        for (Map.Entry<String, String> phrase : previous.phrases) {
+            searchSuggestService.remove(phrase.getKey(), phrase.getValue());
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String key(String type, Long id) {
+        return type + ":" + id;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchPage {
+        private final List<Map<String, Object>> results;
+        private final String nextCursor;
+    }
+
+    private static final class IndexedDocument {
+        private final String type;
+        private final Long id;
+        private final Map<String, Object> summary = new HashMap<>();
+        // term -> field-weighted term frequency
+        private final Map<String, Float> terms = new HashMap<>();
+        private int length;
+        // (suggestion type, text) pairs contributed to autocomplete
+        private final List<Map.Entry<String, String>> phrases = new ArrayList<>();
+
+        private IndexedDocument(String type, Long id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        private void addField(String text, float weight) {
+            for (String token : tokenize(text)) {
+                terms.merge(token, weight, Float::sum);
+                length++;
+            }
+        }
+
+        private void addPhrase(String phraseType, String text) {
+            if (text != null && !text.isBlank()) {
+                phrases.add(Map.entry(phraseType, text));
+            }
+        }
+    }
+
+    // Ordered best-first: higher score, then key for a stable order between equal scores
+    private static final class ScoredKey implements Comparable<ScoredKey> {
+        private final double score;
+        private final String key;
+
+        private ScoredKey(double score, String key) {
+            this.score = score;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(ScoredKey other) {
+            int byScore = Double.compare(other.score, score);
+            return byScore != 0 ? byScore : key.compareTo(other.key);
+        }
+    }
+
+    // Opaque position of the last hit on a page: base64url("<score bits>|<key>")
+    private static final class Cursor {
+        private final ScoredKey position;
+
+        private Cursor(ScoredKey position) {
+            this.position = position;
+        }
+
+        private String encode() {
+            String raw = Long.toHexString(Double.doubleToLongBits(position.score)) + "|" + position.key;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.indexOf('|');
+                double score = Double.longBitsToDouble(Long.parseUnsignedLong(raw.substring(0, sep), 16));
+                return new Cursor(new ScoredKey(score, raw.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid search cursor", e);
+            }
+        }
+    }
+}
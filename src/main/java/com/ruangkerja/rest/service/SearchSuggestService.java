@@ -0,0 +1,232 @@
+package com.ruangkerja.rest.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Autocomplete over profile names, industries, cities and skills. Every phrase is expanded into
+ * edge n-grams (prefixes of each word, up to a maximum length) and each n-gram keeps only its
+ * top-k phrases by popularity, so a lookup is a single map read. At most
+ * {@code app.search.suggest.max-phrases} distinct phrases are kept; past that, adding a new one
+ * evicts the least popular, so memory stays bounded however large the indexed data grows.
+ * Fed by {@link SearchIndexService} whenever a profile is indexed or removed.
+ */
+@Service
+public class SearchSuggestService {
+
+    public static final String TYPE_INDUSTRY = "industry";
+    public static final String TYPE_CITY = "city";
+    public static final String TYPE_SKILL = "skill";
+
+    private static final Comparator<Suggestion> BY_POPULARITY =
+            Comparator.comparingInt((Suggestion s) -> -s.count).thenComparing(s -> s.text);
+    private static final Comparator<Suggestion> LEAST_POPULAR_FIRST =
+            Comparator.comparingInt((Suggestion s) -> s.count).thenComparing(s -> s.key);
+
+    @Value("${app.search.suggest.max-prefix-length:15}")
+    private int maxPrefixLength = 15;
+
+    @Value("${app.search.suggest.top-k:10}")
+    private int topK = 10;
+
+    @Value("${app.search.suggest.max-phrases:50000}")
+    private int maxPhrases = 50000;
+
+    private final Map<String, Suggestion> phrases = new ConcurrentHashMap<>();
+    // Phrase text starting at each word boundary -> phrase keys, used for long queries and for
+    // recomputing an n-gram whose top-k list lost an entry
+    private final NavigableMap<String, Set<String>> wordStarts = new ConcurrentSkipListMap<>();
+    private final Map<String, List<Suggestion>> topByPrefix = new ConcurrentHashMap<>();
+    // Eviction order for the phrase cap; guarded by this
+    private final NavigableSet<Suggestion> evictionOrder = new TreeSet<>(LEAST_POPULAR_FIRST);
+
+    public List<Map<String, Object>> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        List<Map<String, Object>> results = new ArrayList<>();
+        if (prefix.isEmpty() || limit <= 0) {
+            return results;
+        }
+
+        List<Suggestion> ranked;
+        if (prefix.length() <= maxPrefixLength) {
+            ranked = topByPrefix.getOrDefault(prefix, List.of());
+        } else {
+            ranked = scan(prefix);
+        }
+
+        for (Suggestion s : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("text", s.text);
+            map.put("type", s.type);
+            map.put("count", s.count);
+            results.add(map);
+        }
+        return results;
+    }
+
+    public synchronized void add(String type, String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        String key = type + "|" + normalized;
+        Suggestion previous = phrases.get(key);
+        if (previous == null && phrases.size() >= maxPhrases && !evictionOrder.isEmpty()) {
+            replace(evictionOrder.first(), null);
+        }
+        Suggestion updated = previous == null
+                ? new Suggestion(key, type, text.trim(), 1)
+                : new Suggestion(key, type, previous.text, previous.count + 1);
+        phrases.put(key, updated);
+        if (previous != null) {
+            evictionOrder.remove(previous);
+        }
+        evictionOrder.add(updated);
+
+        for (String start : wordStartsOf(normalized)) {
+            wordStarts.computeIfAbsent(start, s -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        for (String gram : gramsOf(normalized)) {
+            offer(gram, updated);
+        }
+    }
+
+    public synchronized void remove(String type, String text) {
+        String key = type + "|" + normalize(text);
+        Suggestion previous = phrases.get(key);
+        if (previous == null) {
+            return;
+        }
+        replace(previous, previous.count > 1
+                ? new Suggestion(key, type, previous.text, previous.count - 1)
+                : null);
+    }
+
+    public synchronized void clear() {
+        phrases.clear();
+        wordStarts.clear();
+        topByPrefix.clear();
+        evictionOrder.clear();
+    }
+
+    // --- Helper Methods ---
+    // Replaces previous with updated, or drops the phrase entirely when updated is null
+    private void replace(Suggestion previous, Suggestion updated) {
+        String key = previous.key;
+        String normalized = key.substring(key.indexOf('|') + 1);
+        evictionOrder.remove(previous);
+        if (updated != null) {
+            phrases.put(key, updated);
+            evictionOrder.add(updated);
+        } else {
+            phrases.remove(key);
+            for (String start : wordStartsOf(normalized)) {
+                Set<String> keys = wordStarts.get(start);
+                if (keys != null) {
+                    keys.remove(key);
+                    if (keys.isEmpty()) {
+                        wordStarts.remove(start);
+                    }
+                }
+            }
+        }
+
+        for (String gram : gramsOf(normalized)) {
+            List<Suggestion> current = topByPrefix.get(gram);
+            if (current == null || current.stream().noneMatch(s -> s.key.equals(key))) {
+                continue;
+            }
+            if (current.size() >= topK) {
+                // A phrase outside the list may now outrank this one
+                List<Suggestion> rebuilt = scan(gram);
+                putList(gram, rebuilt.subList(0, Math.min(topK, rebuilt.size())));
+            } else {
+                List<Suggestion> list = new ArrayList<>(current);
+                list.removeIf(s -> s.key.equals(key));
+                if (updated != null) {
+                    list.add(updated);
+                    list.sort(BY_POPULARITY);
+                }
+                putList(gram, list);
+            }
+        }
+    }
+
+    private void offer(String gram, Suggestion suggestion) {
+        List<Suggestion> list = new ArrayList<>(topByPrefix.getOrDefault(gram, List.of()));
+        list.removeIf(s -> s.key.equals(suggestion.key));
+        list.add(suggestion);
+        list.sort(BY_POPULARITY);
+        putList(gram, list.subList(0, Math.min(topK, list.size())));
+    }
+
+    private void putList(String gram, List<Suggestion> list) {
+        if (list.isEmpty()) {
+            topByPrefix.remove(gram);
+        } else {
+            topByPrefix.put(gram, List.copyOf(list));
+        }
+    }
+
+    private List<Suggestion> scan(String prefix) {
+        Set<String> keys = new HashSet<>();
+        for (Set<String> matches : wordStarts.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            keys.addAll(matches);
+        }
+        List<Suggestion> ranked = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Suggestion s = phrases.get(key);
+            if (s != null) {
+                ranked.add(s);
+            }
+        }
+        ranked.sort(BY_POPULARITY);
+        return ranked;
+    }
+
+    private Set<String> gramsOf(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (String start : wordStartsOf(normalized)) {
+            int max = Math.min(maxPrefixLength, start.length());
+            for (int len = 1; len <= max; len++) {
+                grams.add(start.substring(0, len));
+            }
+        }
+        return grams;
+    }
+
+    private static List<String> wordStartsOf(String normalized) {
+        List<String> starts = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                starts.add(normalized.substring(i));
+            }
+        }
+        return starts;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return String.join(" ", SearchIndexService.tokenize(text));
+    }
+
+    private static final class Suggestion {
+        private final String key;
+        private final String type;
+        private final String text;
+        private final int count;
+
+        private Suggestion(String key, String type, String text, int count) {
+            this.key = key;
+            this.type = type;
+            this.text = text;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.dto.ChatMessageWebSocketDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Coalesces typing indicators. Incoming typing/stop-typing frames only update the sender's state
+ * for that receiver; the receiver is told about a change at most once per
+ * {@code app.chat.typing.interval-ms}, and typing that receives no frame for
+ * {@code app.chat.typing.expiry-ms} turns into stop-typing on its own, so a lost stop frame or
+ * a closed tab does not leave the indicator on.
+ *
+ * <p>State lives in a map of immutable entries replaced with compare-and-set, so frames never
+ * block each other. A background sweep publishes changes that were held back and expiries.
+ */
+@Service
+@RequiredArgsConstructor
+public class TypingIndicatorService {
+
+    public static final String TYPING_DESTINATION = "/queue/typing";
+    public static final String TYPE_TYPING = "typing";
+    public static final String TYPE_STOP_TYPING = "stopTyping";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${app.chat.typing.interval-ms:1000}")
+    private long intervalMs = 1000;
+
+    @Value("${app.chat.typing.expiry-ms:5000}")
+    private long expiryMs = 5000;
+
+    // "senderId:receiverId" -> state of that sender typing to that receiver
+    private final Map<String, TypingState> states = new ConcurrentHashMap<>();
+
+    // Milliseconds; replaced in tests
+    LongSupplier clock = System::currentTimeMillis;
+
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "typing-indicator-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(100, intervalMs / 2);
+        sweeper.scheduleAtFixedRate(this::sweep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    public void onTyping(ChatMessageWebSocketDto frame) {
+        update(frame, false);
+    }
+
+    public void onStopTyping(ChatMessageWebSocketDto frame) {
+        update(frame, true);
+    }
+
+    /**
+     * Publishes held-back changes and expired typing, and forgets idle entries.
+     */
+    public void sweep() {
+        long now = clock.getAsLong();
+        for (Map.Entry<String, TypingState> entry : states.entrySet()) {
+            TypingState state = reconcile(entry.getKey(), now);
+            if (state != null && !state.published && now - state.lastFrameAt >= expiryMs) {
+                states.remove(entry.getKey(), state);
+            }
+        }
+    }
+
+    // --- Helper Methods ---
+    private void update(ChatMessageWebSocketDto frame, boolean stopped) {
+        if (frame.getSenderId() == null || frame.getReceiverId() == null) {
+            return;
+        }
+        String key = frame.getSenderId() + ":" + frame.getReceiverId();
+        long now = clock.getAsLong();
+        while (true) {
+            TypingState current = states.get(key);
+            if (current == null) {
+                if (states.putIfAbsent(key, new TypingState(frame, stopped, now, false, Long.MIN_VALUE / 2)) == null) {
+                    break;
+                }
+            } else if (states.replace(key, current,
+                    new TypingState(frame, stopped, now, current.published, current.publishedAt))) {
+                break;
+            }
+        }
+        reconcile(key, now);
+    }
+
+    // Pushes the desired state if it differs from the published one and the interval allows it
+    private TypingState reconcile(String key, long now) {
+        while (true) {
+            TypingState current = states.get(key);
+            if (current == null) {
+                return null;
+            }
+            boolean typing = !current.stopped && now - current.lastFrameAt < expiryMs;
+            if (typing == current.published || now - current.publishedAt < intervalMs) {
+                return current;
+            }
+            TypingState next = new TypingState(current.frame, current.stopped, current.lastFrameAt, typing, now);
+            if (states.replace(key, current, next)) {
+                push(next.frame, typing, now);
+                return next;
+            }
+        }
+    }
+
+    private void push(ChatMessageWebSocketDto frame, boolean typing, long now) {
+        ChatMessageWebSocketDto message = new ChatMessageWebSocketDto();
+        message.setSenderId(frame.getSenderId());
+        message.setSenderName(frame.getSenderName());
+        message.setSenderProfileImageUrl(frame.getSenderProfileImageUrl());
+        message.setReceiverId(frame.getReceiverId());
+        message.setCreatedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault()));
+        message.setType(typing ? TYPE_TYPING : TYPE_STOP_TYPING);
+        messagingTemplate.convertAndSendToUser(frame.getReceiverId().toString(), TYPING_DESTINATION, message);
+    }
+
+    @AllArgsConstructor
+    private static final class TypingState {
+        private final ChatMessageWebSocketDto frame;
+        private final boolean stopped;
+        private final long lastFrameAt;
+        private final boolean published;
+        private final long publishedAt;
+    }
+}
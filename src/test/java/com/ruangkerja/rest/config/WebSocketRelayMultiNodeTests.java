@@ -0,0 +1,128 @@
+package com.ruangkerja.rest.config;
+
+import com.ruangkerja.rest.RestApplication;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs two application instances in one JVM, both relaying to an embedded ActiveMQ Artemis STOMP
+ * broker, and checks that a user connected to one node receives /user messages sent from the
+ * other. Each node gets its own in-memory H2 database, so no MySQL is needed.
+ */
+class WebSocketRelayMultiNodeTests {
+
+	private static EmbeddedActiveMQ broker;
+	private static ConfigurableApplicationContext nodeA;
+	private static ConfigurableApplicationContext nodeB;
+
+	@BeforeAll
+	static void startCluster() throws Exception {
+		int stompPort = freePort();
+		broker = new EmbeddedActiveMQ();
+		broker.setConfiguration(new ConfigurationImpl()
+				.setPersistenceEnabled(false)
+				.setSecurityEnabled(false)
+				.addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + stompPort +
+						"?protocols=STOMP&anycastPrefix=/queue/&multicastPrefix=/topic/"));
+		broker.start();
+
+		nodeA = startNode("nodeA", stompPort);
+		nodeB = startNode("nodeB", stompPort);
+	}
+
+	@AfterAll
+	static void stopCluster() throws Exception {
+		if (nodeA != null) {
+			nodeA.close();
+		}
+		if (nodeB != null) {
+			nodeB.close();
+		}
+		if (broker != null) {
+			broker.stop();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void userMessageSentOnOneNodeReachesSessionOnTheOther() throws Exception {
+		WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+		client.setMessageConverter(new MappingJackson2MessageConverter());
+		String url = "ws://localhost:" + nodeB.getEnvironment().getProperty("local.server.port") + "/ws/websocket?userId=42";
+		StompSession session = client.connectAsync(url, new StompSessionHandlerAdapter() {
+		}).get(10, TimeUnit.SECONDS);
+
+		BlockingQueue<Map<String, Object>> received = new LinkedBlockingQueue<>();
+		session.subscribe("/user/queue/messages", new StompFrameHandler() {
+			@Override
+			public Type getPayloadType(StompHeaders headers) {
+				return Map.class;
+			}
+
+			@Override
+			public void handleFrame(StompHeaders headers, Object payload) {
+				received.add((Map<String, Object>) payload);
+			}
+		});
+
+		// Node A has no session for user 42; the subscription travels through node B and the
+		// broker asynchronously, so keep sending until one arrives
+		SimpMessagingTemplate nodeATemplate = nodeA.getBean(SimpMessagingTemplate.class);
+		await().atMost(Duration.ofSeconds(20)).pollInterval(Duration.ofMillis(500)).until(() -> {
+			nodeATemplate.convertAndSendToUser("42", "/queue/messages", Map.of("content", "hello from node A"));
+			return received.poll(200, TimeUnit.MILLISECONDS) != null;
+		});
+
+		session.disconnect();
+		client.stop();
+	}
+
+	private static ConfigurableApplicationContext startNode(String name, int stompPort) {
+		// Command-line arguments, so they win over application.properties
+		return new SpringApplicationBuilder(RestApplication.class).run(
+				"--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+				"--spring.datasource.driver-class-name=org.h2.Driver",
+				"--spring.datasource.username=sa",
+				"--spring.datasource.password=",
+				"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+				"--spring.jpa.hibernate.ddl-auto=create-drop",
+				"--spring.jpa.show-sql=false",
+				"--logging.level.org.springframework.web.socket=INFO",
+				"--logging.level.org.springframework.messaging=INFO",
+				"--gemini.api.key=test",
+				"--app.websocket.broker=relay",
+				"--app.websocket.relay.host=127.0.0.1",
+				"--app.websocket.relay.port=" + stompPort);
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
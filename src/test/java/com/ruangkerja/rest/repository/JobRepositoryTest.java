@@ -0,0 +1,132 @@
+package com.ruangkerja.rest.repository;
+
+import com.ruangkerja.rest.entity.Company;
+import com.ruangkerja.rest.entity.Job;
+import com.ruangkerja.rest.entity.User;
+import com.ruangkerja.rest.service.JobSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"app.jobs.fulltext.enabled=false"
+})
+@Import(JobSearchService.class)
+class JobRepositoryTest {
+
+	private static final LocalDateTime OLDER = LocalDateTime.of(2025, 1, 1, 9, 0);
+	private static final LocalDateTime NEWER = OLDER.plusHours(1);
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private JobRepository jobRepository;
+
+	@Autowired
+	private JobSearchService jobSearchService;
+
+	// Newest first: two NEWER jobs, then three OLDER ones sharing one createdAt
+	private final List<Long> expectedOrder = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		Company company = company();
+		List<Job> jobs = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			jobs.add(entityManager.persist(job(company, "Job " + i)));
+		}
+		entityManager.flush();
+		// createdAt is set on persist; pin it so rows tie on the timestamp
+		for (int i = 0; i < jobs.size(); i++) {
+			entityManager.getEntityManager()
+					.createQuery("UPDATE Job j SET j.createdAt = :createdAt WHERE j.id = :id")
+					.setParameter("createdAt", i < 3 ? OLDER : NEWER)
+					.setParameter("id", jobs.get(i).getId())
+					.executeUpdate();
+		}
+		entityManager.clear();
+		for (int i = jobs.size() - 1; i >= 0; i--) {
+			expectedOrder.add(jobs.get(i).getId());
+		}
+	}
+
+	@Test
+	void keysetPagesBreakCreatedAtTiesById() {
+		List<Job> first = jobRepository.findActiveJobsAfter(null, null, null, null, null, null, 2);
+		assertThat(first).extracting(Job::getId).containsExactlyElementsOf(expectedOrder.subList(0, 2));
+
+		Job last = first.get(1);
+		List<Job> second = jobRepository.findActiveJobsAfter(null, null, null, null, last.getCreatedAt(), last.getId(), 2);
+		assertThat(second).extracting(Job::getId).containsExactlyElementsOf(expectedOrder.subList(2, 4));
+
+		// The cursor now sits inside the run of equal timestamps
+		last = second.get(1);
+		List<Job> third = jobRepository.findActiveJobsAfter(null, null, null, null, last.getCreatedAt(), last.getId(), 2);
+		assertThat(third).extracting(Job::getId).containsExactly(expectedOrder.get(4));
+
+		last = third.get(0);
+		assertThat(jobRepository.findActiveJobsAfter(null, null, null, null, last.getCreatedAt(), last.getId(), 2)).isEmpty();
+	}
+
+	@Test
+	void cursorWalkVisitsEveryJobOnceAndEnds() {
+		List<Long> seen = new ArrayList<>();
+		String cursor = "";
+		int pages = 0;
+		do {
+			JobSearchService.JobSlice slice = jobSearchService.findActiveJobsAfter(null, null, null, null, cursor, 2);
+			slice.getJobs().forEach(job -> seen.add(job.getId()));
+			cursor = slice.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertThat(seen).containsExactlyElementsOf(expectedOrder);
+		assertThat(pages).isEqualTo(3);
+	}
+
+	@Test
+	void exactlyFullLastPageHasNoNextCursor() {
+		JobSearchService.JobSlice all = jobSearchService.findActiveJobsAfter(null, null, null, null, "", 5);
+
+		assertThat(all.getJobs()).hasSize(5);
+		assertThat(all.getNextCursor()).isNull();
+	}
+
+	// --- Helper Methods ---
+	private Company company() {
+		User user = new User();
+		user.setEmail("hr@example.com");
+		user.setPassword("secret123");
+		entityManager.persist(user);
+
+		Company company = new Company();
+		company.setUser(user);
+		company.setCompanyName("Acme");
+		company.setEmail(user.getEmail());
+		company.setFoundationDate(LocalDate.of(2010, 1, 1));
+		company.setHq("Jakarta");
+		company.setIndustry("Technology");
+		company.setCompanySize(50);
+		return entityManager.persist(company);
+	}
+
+	private static Job job(Company company, String title) {
+		Job job = new Job();
+		job.setTitle(title);
+		job.setType("full-time");
+		job.setCompany(company);
+		return job;
+	}
+}
@@ -0,0 +1,190 @@
+package com.ruangkerja.rest.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the LIKE job search with the FULLTEXT search used by JobSearchService on a seeded
+ * MySQL table. Needs a scratch database, so it only runs when one is given:
+ *
+ * <pre>
+ * mvn test -Dtest=JobSearchBenchmarkTests \
+ *   -Dbenchmark.mysql.url="jdbc:mysql://localhost:3306/ruangkerja_bench?createDatabaseIfNotExist=true&amp;user=root&amp;password="
+ * </pre>
+ *
+ * The table {@code jobs_benchmark} is recreated with {@code benchmark.jobs} rows (default 100k).
+ * The queries match the repository SQL apart from the table name.
+ */
+@EnabledIfSystemProperty(named = "benchmark.mysql.url", matches = ".+")
+class JobSearchBenchmarkTests {
+
+	private static final int JOBS = Integer.getInteger("benchmark.jobs", 100_000);
+	private static final int RUNS = 10;
+	private static final List<String> SEARCHES = List.of("java", "marketing", "akuntansi jakarta", "spring developer");
+
+	private static final String LIKE_SQL = "SELECT * FROM jobs_benchmark j WHERE j.status = 'ACTIVE' AND " +
+			"(LOWER(j.title) LIKE LOWER(CONCAT('%', ?, '%')) OR " +
+			" LOWER(j.description) LIKE LOWER(CONCAT('%', ?, '%')) OR " +
+			" LOWER(j.skills) LIKE LOWER(CONCAT('%', ?, '%'))) " +
+			"ORDER BY j.created_at DESC LIMIT 12";
+	private static final String LIKE_COUNT_SQL = "SELECT COUNT(*) FROM jobs_benchmark j WHERE j.status = 'ACTIVE' AND " +
+			"(LOWER(j.title) LIKE LOWER(CONCAT('%', ?, '%')) OR " +
+			" LOWER(j.description) LIKE LOWER(CONCAT('%', ?, '%')) OR " +
+			" LOWER(j.skills) LIKE LOWER(CONCAT('%', ?, '%')))";
+	private static final String FULLTEXT_SQL = "SELECT * FROM jobs_benchmark j WHERE j.status = 'ACTIVE' AND " +
+			"MATCH(j.title, j.description, j.skills) AGAINST (? IN BOOLEAN MODE) " +
+			"ORDER BY j.created_at DESC LIMIT 12";
+	private static final String FULLTEXT_COUNT_SQL = "SELECT COUNT(*) FROM jobs_benchmark j WHERE j.status = 'ACTIVE' AND " +
+			"MATCH(j.title, j.description, j.skills) AGAINST (? IN BOOLEAN MODE)";
+
+	private static final String[] WORDS = {
+			"java", "spring", "developer", "marketing", "akuntansi", "jakarta", "surabaya", "bandung", "sales",
+			"engineer", "analyst", "designer", "keuangan", "administrasi", "remote", "senior", "junior", "team",
+			"customer", "service", "logistik", "gudang", "produksi", "operator", "react", "python", "data"
+	};
+
+	private static Connection connection;
+
+	@BeforeAll
+	static void seed() throws SQLException {
+		connection = DriverManager.getConnection(System.getProperty("benchmark.mysql.url") + "&rewriteBatchedStatements=true");
+		try (Statement st = connection.createStatement()) {
+			st.execute("DROP TABLE IF EXISTS jobs_benchmark");
+			st.execute("CREATE TABLE jobs_benchmark (" +
+					"id BIGINT AUTO_INCREMENT PRIMARY KEY, title VARCHAR(255) NOT NULL, type VARCHAR(255), " +
+					"province VARCHAR(255), city VARCHAR(255), description TEXT, skills VARCHAR(255), " +
+					"status VARCHAR(255), created_at DATETIME(6))");
+		}
+
+		Random random = new Random(42);
+		connection.setAutoCommit(false);
+		try (PreparedStatement insert = connection.prepareStatement(
+				"INSERT INTO jobs_benchmark (title, type, province, city, description, skills, status, created_at) " +
+				"VALUES (?, 'full-time', 'jawa-barat', 'bandung', ?, ?, 'ACTIVE', ?)")) {
+			LocalDateTime now = LocalDateTime.now();
+			for (int i = 0; i < JOBS; i++) {
+				insert.setString(1, words(random, 3) + " " + i);
+				insert.setString(2, words(random, 80) + " filler" + random.nextInt(50_000));
+				insert.setString(3, String.join(",", words(random, 4).split(" ")));
+				insert.setTimestamp(4, Timestamp.valueOf(now.minusMinutes(i)));
+				insert.addBatch();
+				if (i % 1000 == 999) {
+					insert.executeBatch();
+				}
+			}
+			insert.executeBatch();
+		}
+		connection.commit();
+		connection.setAutoCommit(true);
+
+		try (Statement st = connection.createStatement()) {
+			st.execute("CREATE FULLTEXT INDEX ft_jobs_benchmark ON jobs_benchmark (title, description, skills)");
+			st.execute("ANALYZE TABLE jobs_benchmark");
+		}
+	}
+
+	@AfterAll
+	static void cleanUp() throws SQLException {
+		if (connection != null) {
+			try (Statement st = connection.createStatement()) {
+				st.execute("DROP TABLE IF EXISTS jobs_benchmark");
+			}
+			connection.close();
+		}
+	}
+
+	@Test
+	void fullTextSearchAgainstLikeSearch() throws SQLException {
+		System.out.printf("Job search over %,d rows (page + count, median of %d runs)%n", JOBS, RUNS);
+		for (String search : SEARCHES) {
+			String booleanQuery = "+" + String.join("* +", search.split(" ")) + "*";
+			double like = medianMillis(() -> {
+				runLike(LIKE_SQL, search);
+				runLike(LIKE_COUNT_SQL, search);
+			});
+			double fullText = medianMillis(() -> {
+				run(FULLTEXT_SQL, booleanQuery);
+				run(FULLTEXT_COUNT_SQL, booleanQuery);
+			});
+			System.out.printf("  %-20s LIKE %8.1f ms   FULLTEXT %8.1f ms%n", search, like, fullText);
+		}
+
+		try (PreparedStatement ps = connection.prepareStatement(FULLTEXT_COUNT_SQL)) {
+			ps.setString(1, "+java*");
+			try (ResultSet rs = ps.executeQuery()) {
+				rs.next();
+				assertThat(rs.getLong(1)).isPositive();
+			}
+		}
+	}
+
+	private static String words(Random random, int count) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				sb.append(' ');
+			}
+			sb.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		return sb.toString();
+	}
+
+	private static void runLike(String sql, String search) throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.setString(1, search);
+			ps.setString(2, search);
+			ps.setString(3, search);
+			drain(ps);
+		}
+	}
+
+	private static void run(String sql, String booleanQuery) throws SQLException {
+		try (PreparedStatement ps = connection.prepareStatement(sql)) {
+			ps.setString(1, booleanQuery);
+			drain(ps);
+		}
+	}
+
+	private static void drain(PreparedStatement ps) throws SQLException {
+		try (ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				rs.getObject(1);
+			}
+		}
+	}
+
+	private static double medianMillis(SqlRunnable runnable) throws SQLException {
+		runnable.run();
+		List<Double> timings = new ArrayList<>();
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			runnable.run();
+			timings.add((System.nanoTime() - start) / 1_000_000.0);
+		}
+		Double[] sorted = timings.toArray(new Double[0]);
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+
+	@FunctionalInterface
+	private interface SqlRunnable {
+		void run() throws SQLException;
+	}
+}
@@ -0,0 +1,132 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.entity.Conversation;
+import com.ruangkerja.rest.entity.Message;
+import com.ruangkerja.rest.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"app.chat.archive.enabled=false"})
+@Import({ChatHistoryService.class, MessageArchiveService.class})
+class ChatHistoryServiceTest {
+
+	private static final int MESSAGES = 45;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private ChatHistoryService chatHistoryService;
+
+	private User alice;
+	private User bob;
+	private final List<Long> ids = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		alice = user("alice@example.com");
+		bob = user("bob@example.com");
+		User carol = user("carol@example.com");
+		Conversation thread = conversation(alice, bob);
+		Conversation other = conversation(carol, alice);
+		for (int i = 0; i < MESSAGES; i++) {
+			boolean fromAlice = i % 3 != 0;
+			ids.add(message(thread, fromAlice ? alice : bob, fromAlice ? bob : alice, "m" + i).getId());
+			// Messages of other threads must not leak into the window
+			message(other, carol, alice, "other " + i);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void firstWindowHoldsNewestMessagesInOrder() {
+		ChatHistoryService.MessageWindow window = chatHistoryService.getMessages(bob.getId(), alice.getId(), null, null, 20);
+
+		assertThat(window.getMessages()).extracting(Message::getId).containsExactlyElementsOf(ids.subList(25, 45));
+		assertThat(window.isHasOlder()).isTrue();
+		assertThat(window.isHasNewer()).isFalse();
+	}
+
+	@Test
+	void beforeAndAfterWalkTheThread() {
+		ChatHistoryService.MessageWindow older = chatHistoryService.getMessages(alice.getId(), bob.getId(), ids.get(25), null, 20);
+		assertThat(older.getMessages()).extracting(Message::getId).containsExactlyElementsOf(ids.subList(5, 25));
+
+		ChatHistoryService.MessageWindow oldest = chatHistoryService.getMessages(alice.getId(), bob.getId(), ids.get(5), null, 20);
+		assertThat(oldest.getMessages()).extracting(Message::getId).containsExactlyElementsOf(ids.subList(0, 5));
+		assertThat(oldest.isHasOlder()).isFalse();
+
+		ChatHistoryService.MessageWindow newer = chatHistoryService.getMessages(alice.getId(), bob.getId(), null, ids.get(30), 10);
+		assertThat(newer.getMessages()).extracting(Message::getId).containsExactlyElementsOf(ids.subList(31, 41));
+		assertThat(newer.isHasNewer()).isTrue();
+	}
+
+	@Test
+	void readStateFollowsReceiverMark() {
+		// Bob has read up to m30; Alice has read nothing
+		Conversation thread = entityManager.getEntityManager()
+				.createQuery("SELECT c FROM Conversation c WHERE c.user1.id = :alice AND c.user2.id = :bob", Conversation.class)
+				.setParameter("alice", alice.getId())
+				.setParameter("bob", bob.getId())
+				.getSingleResult();
+		thread.setUser2LastReadMessageId(ids.get(30));
+		entityManager.flush();
+		entityManager.clear();
+
+		List<Message> window = chatHistoryService.getMessages(alice.getId(), bob.getId(), null, null, 20).getMessages();
+		List<Message> page = chatHistoryService.getPage(alice.getId(), bob.getId(), PageRequest.of(1, 20)).getContent();
+
+		for (List<Message> messages : List.of(window, page)) {
+			assertThat(messages).allSatisfy(m -> assertThat(m.getIsRead()).isEqualTo(
+					m.getReceiver().getId().equals(bob.getId()) && m.getId() <= ids.get(30)));
+		}
+		assertThat(window).anyMatch(Message::getIsRead);
+	}
+
+	@Test
+	void rejectsCursorFromAnotherThread() {
+		Long foreign = entityManager.getEntityManager()
+				.createQuery("SELECT m.id FROM Message m WHERE m.content = 'other 0'", Long.class)
+				.getSingleResult();
+
+		assertThatThrownBy(() -> chatHistoryService.getMessages(alice.getId(), bob.getId(), foreign, null, 20))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private User user(String email) {
+		User user = new User();
+		user.setEmail(email);
+		user.setPassword("secret123");
+		return entityManager.persist(user);
+	}
+
+	private Conversation conversation(User user1, User user2) {
+		Conversation conversation = new Conversation();
+		conversation.setUser1(user1);
+		conversation.setUser2(user2);
+		return entityManager.persist(conversation);
+	}
+
+	private Message message(Conversation conversation, User sender, User receiver, String content) {
+		Message message = new Message();
+		message.setConversation(conversation);
+		message.setSender(sender);
+		message.setReceiver(receiver);
+		message.setContent(content);
+		return entityManager.persist(message);
+	}
+}
@@ -0,0 +1,162 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.entity.Candidate;
+import com.ruangkerja.rest.entity.Company;
+import com.ruangkerja.rest.entity.Conversation;
+import com.ruangkerja.rest.entity.Message;
+import com.ruangkerja.rest.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(ChatInboxService.class)
+class ChatInboxServiceTest {
+
+	private static final int CONVERSATIONS = 12;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ChatInboxService chatInboxService;
+
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		owner = user("owner@example.com");
+		for (int i = 0; i < CONVERSATIONS; i++) {
+			User other = user("user" + i + "@example.com");
+			if (i % 3 == 0) {
+				entityManager.persist(candidate(other, "Candidate " + i));
+			} else if (i % 3 == 1) {
+				entityManager.persist(company(other, "Company " + i));
+			}
+			Conversation conversation = new Conversation();
+			conversation.setUser1(i % 2 == 0 ? owner : other);
+			conversation.setUser2(i % 2 == 0 ? other : owner);
+			entityManager.persist(conversation);
+
+			Message message = message(conversation, other, owner, "hello " + i);
+			if (i % 4 == 0) {
+				Message reply = message(conversation, owner, other, "read " + i);
+				reply.setIsRead(true);
+				message = message(conversation, other, owner, "again " + i);
+			}
+			conversation.setLastMessage(message);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void inboxUsesFixedNumberOfQueries() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		List<Map<String, Object>> inbox = chatInboxService.getConversations(owner.getId());
+
+		// conversations + candidate profiles + company profiles + unread counts
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+		assertThat(inbox).hasSize(CONVERSATIONS);
+		assertThat(inbox).extracting(c -> ((Map<String, Object>) c.get("otherUser")).get("type"))
+				.containsOnly("candidate", "company", "user");
+		assertThat(inbox).allSatisfy(c -> assertThat((Map<String, Object>) c.get("lastMessage"))
+				.containsKeys("content", "senderId"));
+	}
+
+	@Test
+	void inboxCountsUnreadMessagesPerConversation() {
+		List<Map<String, Object>> inbox = chatInboxService.getConversations(owner.getId());
+
+		// Every counterpart sent one unread message, every fourth one sent two
+		assertThat(inbox).extracting(c -> c.get("unreadCount")).filteredOn(n -> n.equals(2L)).hasSize(3);
+		assertThat(inbox).extracting(c -> c.get("unreadCount")).filteredOn(n -> n.equals(1L)).hasSize(CONVERSATIONS - 3);
+	}
+
+	@Test
+	void inboxHonorsReadReceiptMarks() {
+		Conversation conversation = entityManager.getEntityManager()
+				.createQuery("SELECT c FROM Conversation c WHERE c.lastMessage.content = 'again 0'", Conversation.class)
+				.getSingleResult();
+		// Owner is user1 in even conversations; reading up to the last message clears both unread
+		conversation.setUser1LastReadMessageId(conversation.getLastMessage().getId());
+		entityManager.flush();
+		entityManager.clear();
+
+		List<Map<String, Object>> inbox = chatInboxService.getConversations(owner.getId());
+
+		assertThat(inbox).filteredOn(c -> c.get("id").equals(conversation.getId()))
+				.extracting(c -> c.get("unreadCount")).containsExactly(0L);
+	}
+
+	@Test
+	void inboxProfilesMatchSingleLookup() {
+		for (Map<String, Object> conversation : chatInboxService.getConversations(owner.getId())) {
+			Map<?, ?> otherUser = (Map<?, ?>) conversation.get("otherUser");
+			User user = entityManager.find(User.class, otherUser.get("userId"));
+			assertThat(otherUser).isEqualTo(chatInboxService.getUserProfile(user));
+		}
+	}
+
+	private Message message(Conversation conversation, User sender, User receiver, String content) {
+		Message message = new Message();
+		message.setConversation(conversation);
+		message.setSender(sender);
+		message.setReceiver(receiver);
+		message.setContent(content);
+		return entityManager.persist(message);
+	}
+
+	private User user(String email) {
+		User user = new User();
+		user.setEmail(email);
+		user.setPassword("secret123");
+		return entityManager.persist(user);
+	}
+
+	private static Candidate candidate(User user, String name) {
+		Candidate candidate = new Candidate();
+		candidate.setUser(user);
+		candidate.setFullName(name);
+		candidate.setEmail(user.getEmail());
+		candidate.setBirthDate(LocalDate.of(2000, 1, 1));
+		candidate.setCity("Bandung");
+		candidate.setJobType("full-time");
+		candidate.setIndustry("Technology");
+		candidate.setEmploymentStatus("Unemployed");
+		return candidate;
+	}
+
+	private static Company company(User user, String name) {
+		Company company = new Company();
+		company.setUser(user);
+		company.setCompanyName(name);
+		company.setEmail(user.getEmail());
+		company.setFoundationDate(LocalDate.of(2010, 1, 1));
+		company.setHq("Jakarta");
+		company.setIndustry("Technology");
+		company.setCompanySize(50);
+		return company;
+	}
+}
@@ -0,0 +1,173 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.dto.ChatMessageWebSocketDto;
+import com.ruangkerja.rest.dto.ChatSendAckDto;
+import com.ruangkerja.rest.entity.Conversation;
+import com.ruangkerja.rest.entity.User;
+import com.ruangkerja.rest.repository.ConversationRepository;
+import com.ruangkerja.rest.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatSendPipelineTest {
+
+	private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final ConversationRepository conversationRepository = mock(ConversationRepository.class);
+	private final ChatInboxService chatInboxService = mock(ChatInboxService.class);
+
+	private EmbeddedDatabase database;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+		jdbcTemplate = new JdbcTemplate(database);
+		jdbcTemplate.execute("CREATE TABLE conversations (id BIGINT AUTO_INCREMENT PRIMARY KEY, user1_id BIGINT, " +
+				"user2_id BIGINT, last_message_id BIGINT, created_at TIMESTAMP, updated_at TIMESTAMP)");
+		jdbcTemplate.execute("CREATE TABLE messages (id BIGINT AUTO_INCREMENT PRIMARY KEY, conversation_id BIGINT, " +
+				"sender_id BIGINT, receiver_id BIGINT, content VARCHAR(1000) CHECK (content <> 'poison'), " +
+				"message_type VARCHAR(20), is_read BOOLEAN, client_message_id VARCHAR(64), created_at TIMESTAMP, " +
+				"updated_at TIMESTAMP, CONSTRAINT uk_sender_client UNIQUE (sender_id, client_message_id))");
+		jdbcTemplate.update("INSERT INTO conversations (id, user1_id, user2_id) VALUES (7, 1, 2)");
+
+		Conversation conversation = new Conversation();
+		conversation.setId(7L);
+		when(conversationRepository.findConversationBetweenUsers(any(), any())).thenReturn(Optional.of(conversation));
+		User sender = new User();
+		sender.setId(1L);
+		when(userRepository.findById(1L)).thenReturn(Optional.of(sender));
+		when(chatInboxService.getUserProfile(sender)).thenReturn(Map.of("fullName", "Alice"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		database.shutdown();
+	}
+
+	@Test
+	void pushesAndAcknowledgesAfterCommit() throws InterruptedException {
+		ChatSendPipeline pipeline = pipeline(100);
+		pipeline.start();
+
+		for (int i = 0; i < 5; i++) {
+			ChatSendAckDto queued = pipeline.send(1L, 2L, "hello " + i, "c" + i);
+			assertThat(queued.getStatus()).isEqualTo(ChatSendPipeline.STATUS_QUEUED);
+		}
+
+		ArgumentCaptor<ChatSendAckDto> acks = ArgumentCaptor.forClass(ChatSendAckDto.class);
+		verify(messagingTemplate, timeout(5000).times(5))
+				.convertAndSendToUser(eq("1"), eq(ChatSendPipeline.ACKS_DESTINATION), acks.capture());
+		ArgumentCaptor<ChatMessageWebSocketDto> pushed = ArgumentCaptor.forClass(ChatMessageWebSocketDto.class);
+		verify(messagingTemplate, times(5))
+				.convertAndSendToUser(eq("2"), eq(ChatSendPipeline.MESSAGES_DESTINATION), pushed.capture());
+		pipeline.stop();
+
+		assertThat(acks.getAllValues()).extracting(ChatSendAckDto::getStatus).containsOnly(ChatSendPipeline.STATUS_PERSISTED);
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM messages WHERE conversation_id = 7 ORDER BY id", Long.class);
+		assertThat(acks.getAllValues()).extracting(ChatSendAckDto::getMessageId).containsExactlyInAnyOrderElementsOf(ids);
+		assertThat(pushed.getAllValues()).extracting(ChatMessageWebSocketDto::getSenderName).containsOnly("Alice");
+		assertThat(pushed.getAllValues()).extracting(ChatMessageWebSocketDto::getId).containsExactlyInAnyOrderElementsOf(ids);
+		assertThat(jdbcTemplate.queryForObject("SELECT last_message_id FROM conversations WHERE id = 7", Long.class))
+				.isEqualTo(ids.get(ids.size() - 1));
+	}
+
+	@Test
+	void rejectsSendsWhenQueueIsFull() {
+		// Writer not started, so nothing drains the queue
+		ChatSendPipeline pipeline = pipeline(2);
+		pipeline.send(1L, 2L, "one", null);
+		pipeline.send(1L, 2L, "two", null);
+
+		assertThatThrownBy(() -> pipeline.send(1L, 2L, "three", null))
+				.isInstanceOf(ChatSendPipeline.QueueFullException.class);
+		// Nothing is pushed before it is stored
+		verify(messagingTemplate, never())
+				.convertAndSendToUser(eq("2"), eq(ChatSendPipeline.MESSAGES_DESTINATION), any(Object.class));
+	}
+
+	@Test
+	void badRowFailsAloneAfterBatchRetries() throws InterruptedException {
+		ChatSendPipeline pipeline = pipeline(100);
+		ReflectionTestUtils.setField(pipeline, "maxAttempts", 2);
+		for (int i = 0; i < 4; i++) {
+			pipeline.send(1L, 2L, i == 2 ? "poison" : "fine " + i, "c" + i);
+		}
+		pipeline.start();
+
+		ArgumentCaptor<ChatSendAckDto> acks = ArgumentCaptor.forClass(ChatSendAckDto.class);
+		verify(messagingTemplate, timeout(5000).times(4))
+				.convertAndSendToUser(eq("1"), eq(ChatSendPipeline.ACKS_DESTINATION), acks.capture());
+		pipeline.stop();
+
+		assertThat(acks.getAllValues()).extracting(ChatSendAckDto::getClientMessageId, ChatSendAckDto::getStatus)
+				.containsExactlyInAnyOrder(
+						tuple("c0", ChatSendPipeline.STATUS_PERSISTED),
+						tuple("c1", ChatSendPipeline.STATUS_PERSISTED),
+						tuple("c2", ChatSendPipeline.STATUS_FAILED),
+						tuple("c3", ChatSendPipeline.STATUS_PERSISTED));
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM messages", Integer.class)).isEqualTo(3);
+	}
+
+	@Test
+	void resendWithSameClientIdDoesNotDuplicate() throws InterruptedException {
+		ChatSendPipeline pipeline = pipeline(100);
+		pipeline.start();
+		pipeline.send(1L, 2L, "hello", "same");
+		verify(messagingTemplate, timeout(5000).times(1))
+				.convertAndSendToUser(eq("1"), eq(ChatSendPipeline.ACKS_DESTINATION), any(Object.class));
+
+		// e.g. the ack was lost and the client resent, twice in the same batch
+		pipeline.stop();
+		pipeline = pipeline(100);
+		pipeline.send(1L, 2L, "hello", "same");
+		pipeline.send(1L, 2L, "hello", "same");
+		pipeline.start();
+
+		ArgumentCaptor<ChatSendAckDto> acks = ArgumentCaptor.forClass(ChatSendAckDto.class);
+		verify(messagingTemplate, timeout(5000).times(3))
+				.convertAndSendToUser(eq("1"), eq(ChatSendPipeline.ACKS_DESTINATION), acks.capture());
+		pipeline.stop();
+
+		Long id = jdbcTemplate.queryForObject("SELECT id FROM messages", Long.class);
+		assertThat(acks.getAllValues()).extracting(ChatSendAckDto::getMessageId).containsOnly(id);
+	}
+
+	@Test
+	void rejectsInvalidContent() {
+		ChatSendPipeline pipeline = pipeline(2);
+
+		assertThatThrownBy(() -> pipeline.send(1L, 2L, " ", null)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> pipeline.send(1L, 2L, "x".repeat(1001), null)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private ChatSendPipeline pipeline(int capacity) {
+		return new ChatSendPipeline(jdbcTemplate, new DataSourceTransactionManager(database), messagingTemplate,
+				userRepository, conversationRepository, chatInboxService, capacity, 60);
+	}
+}
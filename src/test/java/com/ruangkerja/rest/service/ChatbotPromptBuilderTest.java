@@ -0,0 +1,54 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.dto.ChatMessageDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatbotPromptBuilderTest {
+
+	private final ChatbotPromptBuilder builder = new ChatbotPromptBuilder();
+
+	@Test
+	void shortHistoryIsKeptVerbatim() {
+		String prompt = builder.build("And the cover letter?", List.of(
+				new ChatMessageDto("user", "How long should my CV be?"),
+				new ChatMessageDto("assistant", "One page is usually enough.")));
+
+		assertThat(prompt).startsWith(ChatbotPromptBuilder.PREAMBLE)
+				.contains("User: How long should my CV be?\nAssistant: One page is usually enough.\n")
+				.doesNotContain("Summary of earlier conversation")
+				.contains("Current user question: And the cover letter?");
+	}
+
+	@Test
+	void longHistoryStaysWithinBudget() {
+		List<ChatMessageDto> history = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			history.add(new ChatMessageDto(i % 2 == 0 ? "user" : "assistant",
+					"Turn " + i + " asks something specific. " + "More detail. ".repeat(30)));
+		}
+
+		String prompt = builder.build("What next?", history);
+		String conversation = prompt.substring(ChatbotPromptBuilder.PREAMBLE.length());
+
+		assertThat(ChatbotPromptBuilder.estimateTokens(conversation)).isLessThanOrEqualTo(1500 + 50);
+		assertThat(conversation).contains("Assistant: " + history.get(199).getContent())
+				.contains("Summary of earlier conversation:")
+				.contains("- User: Turn 180 asks something specific.")
+				.doesNotContain("Turn 0 ");
+	}
+
+	@Test
+	void sameHistoryBuildsTheSamePrompt() {
+		List<ChatMessageDto> history = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			history.add(new ChatMessageDto("user", "Question " + i + ". " + "Context. ".repeat(40)));
+		}
+
+		assertThat(builder.build("Again?", history)).isEqualTo(builder.build("Again?", history));
+	}
+}
@@ -0,0 +1,55 @@
+package com.ruangkerja.rest.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatbotResponseCacheTest {
+
+	private final AtomicLong nanos = new AtomicLong();
+	private final ChatbotResponseCache cache = new ChatbotResponseCache(100, Duration.ofMinutes(60), nanos::get);
+
+	@Test
+	void nearIdenticalQuestionsShareAnEntry() {
+		cache.put("How to write a CV?", "Keep it to one page.");
+
+		assertThat(cache.get("how to write my resume")).contains("Keep it to one page.");
+		assertThat(cache.get("  HOW TO WRITE CV!!")).contains("Keep it to one page.");
+		assertThat(cache.get("how to read a CV")).isEmpty();
+	}
+
+	@Test
+	void fillerWordsAndSynonymsAreIgnored() {
+		assertThat(ChatbotResponseCache.fingerprint("tips interview"))
+				.isEqualTo(ChatbotResponseCache.fingerprint("Tips for the interview, please"))
+				.isEqualTo(ChatbotResponseCache.fingerprint("tolong kiat wawancara dong"));
+		assertThat(ChatbotResponseCache.fingerprint("?!")).isNull();
+	}
+
+	@Test
+	void wordOrderIsKept() {
+		assertThat(ChatbotResponseCache.fingerprint("How do I move from sales to engineering?"))
+				.isNotEqualTo(ChatbotResponseCache.fingerprint("How do I move from engineering to sales?"));
+	}
+
+	@Test
+	void entriesExpire() {
+		cache.put("tips interview", "Research the company.");
+		nanos.addAndGet(TimeUnit.MINUTES.toNanos(61));
+
+		assertThat(cache.get("tips interview")).isEmpty();
+	}
+
+	@Test
+	void statsCountHitsAndMisses() {
+		cache.put("tips interview", "Research the company.");
+		cache.get("Tips for the interview");
+		cache.get("salary negotiation");
+
+		assertThat(cache.stats()).containsEntry("hits", 1L).containsEntry("misses", 1L).containsEntry("size", 1L);
+	}
+}
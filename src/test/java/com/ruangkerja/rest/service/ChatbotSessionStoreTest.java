@@ -0,0 +1,127 @@
+package com.ruangkerja.rest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ruangkerja.rest.dto.ChatMessageDto;
+import com.ruangkerja.rest.entity.ChatbotSession;
+import com.ruangkerja.rest.repository.ChatbotSessionRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatbotSessionStoreTest {
+
+	private final ChatbotSessionRepository repository = mock(ChatbotSessionRepository.class);
+	private final AtomicLong nanos = new AtomicLong();
+	private final ChatbotSessionStore store = new ChatbotSessionStore(repository, 100, Duration.ofMinutes(30), nanos::get);
+
+	{
+		ReflectionTestUtils.setField(store, "maxTurns", 4);
+	}
+
+	@Test
+	void sessionKeepsHistoryBetweenRequests() {
+		ChatbotSessionStore.Session session = store.open(null);
+		store.append(session, "How long should my CV be?", "One page.");
+
+		ChatbotSessionStore.Session resumed = store.open(session.getId());
+
+		assertThat(resumed.getId()).isEqualTo(session.getId());
+		assertThat(resumed.history()).containsExactly(
+				new ChatMessageDto("user", "How long should my CV be?"),
+				new ChatMessageDto("assistant", "One page."));
+		verify(repository, never()).save(any());
+	}
+
+	@Test
+	void historyIsCappedAtMaxTurns() {
+		ChatbotSessionStore.Session session = store.open(null);
+		for (int i = 0; i < 3; i++) {
+			store.append(session, "q" + i, "a" + i);
+		}
+
+		assertThat(session.history()).extracting(ChatMessageDto::getContent).containsExactly("q1", "a1", "q2", "a2");
+	}
+
+	@Test
+	void unknownOrExpiredSessionStartsOver() {
+		ChatbotSessionStore.Session session = store.open(null);
+		store.append(session, "q", "a");
+
+		nanos.addAndGet(TimeUnit.MINUTES.toNanos(31));
+		ChatbotSessionStore.Session expired = store.open(session.getId());
+		ChatbotSessionStore.Session unknown = store.open("not-a-session");
+
+		assertThat(expired.getId()).isNotEqualTo(session.getId());
+		assertThat(expired.history()).isEmpty();
+		assertThat(unknown.getId()).isNotEqualTo("not-a-session");
+	}
+
+	@Test
+	void persistedSessionIsReadFromTheRepository() {
+		ReflectionTestUtils.setField(store, "persist", true);
+		ChatbotSessionStore.Session session = store.open(null);
+		store.append(session, "Tips for interviews?", "Research the company.");
+
+		ArgumentCaptor<ChatbotSession> saved = ArgumentCaptor.forClass(ChatbotSession.class);
+		verify(repository).save(saved.capture());
+		assertThat(saved.getValue().getId()).isEqualTo(session.getId());
+
+		store.remove(session.getId());
+		when(repository.findById(session.getId())).thenReturn(Optional.of(
+				new ChatbotSession(session.getId(), saved.getValue().getHistory(), LocalDateTime.now())));
+
+		ChatbotSessionStore.Session reloaded = store.open(session.getId());
+
+		assertThat(reloaded.getId()).isEqualTo(session.getId());
+		assertThat(reloaded.history()).containsExactly(
+				new ChatMessageDto("user", "Tips for interviews?"),
+				new ChatMessageDto("assistant", "Research the company."));
+	}
+
+	@Test
+	void persistedSessionSeesHistoryWrittenByAnotherNode() throws Exception {
+		ReflectionTestUtils.setField(store, "persist", true);
+		when(repository.findById("s1")).thenReturn(Optional.of(stored("s1", 1)));
+		assertThat(store.open("s1").history()).hasSize(2);
+
+		// Another node answered the next question in the meantime
+		when(repository.findById("s1")).thenReturn(Optional.of(stored("s1", 2)));
+
+		assertThat(store.open("s1").history()).extracting(ChatMessageDto::getContent)
+				.containsExactly("q0", "a0", "q1", "a1");
+	}
+
+	@Test
+	void loadedHistoryIsTrimmedToMaxTurns() throws Exception {
+		ReflectionTestUtils.setField(store, "persist", true);
+		when(repository.findById("s1")).thenReturn(Optional.of(stored("s1", 3)));
+
+		assertThat(store.open("s1").history()).extracting(ChatMessageDto::getContent)
+				.containsExactly("q1", "a1", "q2", "a2");
+	}
+
+	// --- Helper Methods ---
+	private static ChatbotSession stored(String id, int turns) throws Exception {
+		List<ChatMessageDto> history = new ArrayList<>();
+		for (int i = 0; i < turns; i++) {
+			history.add(new ChatMessageDto("user", "q" + i));
+			history.add(new ChatMessageDto("assistant", "a" + i));
+		}
+		return new ChatbotSession(id, new ObjectMapper().writeValueAsString(history), LocalDateTime.now());
+	}
+}
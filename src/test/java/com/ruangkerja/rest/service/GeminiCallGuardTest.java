@@ -0,0 +1,127 @@
+package com.ruangkerja.rest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GeminiCallGuardTest {
+
+	private final GeminiClient geminiClient = mock(GeminiClient.class);
+	private final GeminiCallGuard guard = new GeminiCallGuard(geminiClient);
+	private final AtomicLong now = new AtomicLong(1_000_000);
+
+	{
+		ReflectionTestUtils.setField(guard, "maxConcurrent", 2);
+		ReflectionTestUtils.setField(guard, "maxQueue", 1);
+		ReflectionTestUtils.setField(guard, "queueTimeoutMs", 200L);
+		ReflectionTestUtils.setField(guard, "windowSize", 4);
+		ReflectionTestUtils.setField(guard, "minimumCalls", 4);
+		ReflectionTestUtils.setField(guard, "slowCallMs", 1000L);
+		ReflectionTestUtils.setField(guard, "openMs", 5000L);
+		ReflectionTestUtils.setField(guard, "halfOpenCalls", 2);
+		guard.clock = now::get;
+		guard.start();
+	}
+
+	@AfterEach
+	void stop() {
+		guard.stop();
+	}
+
+	@Test
+	void identicalPromptsShareOneUpstreamCall() throws Exception {
+		CompletableFuture<String> upstream = new CompletableFuture<>();
+		when(geminiClient.generateContent("cv tips")).thenReturn(upstream);
+
+		CompletableFuture<String> first = guard.generateContent("cv tips");
+		CompletableFuture<String> second = guard.generateContent("cv tips");
+		upstream.complete("Keep it short");
+
+		assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("Keep it short");
+		assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("Keep it short");
+		verify(geminiClient, times(1)).generateContent("cv tips");
+	}
+
+	@Test
+	void bulkheadQueuesThenRejects() throws Exception {
+		CompletableFuture<String> a = new CompletableFuture<>();
+		CompletableFuture<String> b = new CompletableFuture<>();
+		when(geminiClient.generateContent("a")).thenReturn(a);
+		when(geminiClient.generateContent("b")).thenReturn(b);
+		when(geminiClient.generateContent("c")).thenReturn(CompletableFuture.completedFuture("c done"));
+
+		guard.generateContent("a");
+		guard.generateContent("b");
+		CompletableFuture<String> queued = guard.generateContent("c");
+		CompletableFuture<String> rejected = guard.generateContent("d");
+
+		assertThatThrownBy(() -> rejected.get(1, TimeUnit.SECONDS))
+				.hasCauseInstanceOf(GeminiCallGuard.RejectedException.class);
+		assertThat(queued).isNotDone();
+
+		a.complete("a done");
+		assertThat(queued.get(1, TimeUnit.SECONDS)).isEqualTo("c done");
+	}
+
+	@Test
+	void queuedCallsGiveUpAfterQueueTimeout() {
+		when(geminiClient.generateContent(anyString())).thenReturn(new CompletableFuture<>());
+		guard.generateContent("a");
+		guard.generateContent("b");
+
+		CompletableFuture<String> queued = guard.generateContent("c");
+
+		assertThatThrownBy(() -> queued.get(2, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(GeminiCallGuard.RejectedException.class);
+	}
+
+	@Test
+	void breakerOpensOnFailuresAndClosesAfterTrialCalls() throws Exception {
+		when(geminiClient.generateContent(anyString())).thenReturn(
+				CompletableFuture.failedFuture(new GeminiClient.GeminiException("HTTP 503")));
+		for (int i = 0; i < 4; i++) {
+			guard.generateContent("q" + i).exceptionally(e -> null).get(1, TimeUnit.SECONDS);
+		}
+		assertThat(guard.getState()).isEqualTo(GeminiCallGuard.State.OPEN);
+
+		assertThatThrownBy(() -> guard.generateContent("q4").get(1, TimeUnit.SECONDS))
+				.hasCauseInstanceOf(GeminiCallGuard.RejectedException.class);
+		verify(geminiClient, times(4)).generateContent(anyString());
+
+		now.addAndGet(5000);
+		when(geminiClient.generateContent(anyString())).thenReturn(CompletableFuture.completedFuture("ok"));
+		assertThat(guard.getState()).isEqualTo(GeminiCallGuard.State.HALF_OPEN);
+		guard.generateContent("t1").get(1, TimeUnit.SECONDS);
+		guard.generateContent("t2").get(1, TimeUnit.SECONDS);
+
+		assertThat(guard.getState()).isEqualTo(GeminiCallGuard.State.CLOSED);
+	}
+
+	@Test
+	void slowCallsCountAsFailures() throws Exception {
+		for (int i = 0; i < 4; i++) {
+			CompletableFuture<String> upstream = new CompletableFuture<>();
+			when(geminiClient.generateContent("slow" + i)).thenReturn(upstream);
+			CompletableFuture<String> call = guard.generateContent("slow" + i);
+			now.addAndGet(1500);
+			upstream.complete("late");
+			call.get(1, TimeUnit.SECONDS);
+		}
+
+		assertThat(guard.getState()).isEqualTo(GeminiCallGuard.State.OPEN);
+	}
+}
@@ -0,0 +1,183 @@
+package com.ruangkerja.rest.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class GeminiClientTest {
+
+	private HttpServer server;
+
+	@AfterEach
+	void stopServer() {
+		if (server != null) {
+			server.stop(0);
+		}
+	}
+
+	@Test
+	void completesWithCandidateText() throws Exception {
+		GeminiClient client = client(exchange -> respond(exchange, 200,
+				"{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Polish your CV\"}]}}]}"), 1000);
+
+		assertThat(client.generateContent("cv tips").get(5, TimeUnit.SECONDS)).isEqualTo("Polish your CV");
+	}
+
+	@Test
+	void upstreamErrorsFailTheFuture() {
+		GeminiClient client = client(exchange -> respond(exchange, 429, "{}"), 1000);
+
+		assertThatThrownBy(() -> client.generateContent("cv tips").get(5, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(GeminiClient.GeminiException.class)
+				.hasMessageContaining("HTTP 429");
+	}
+
+	@Test
+	void slowUpstreamTimesOut() {
+		GeminiClient client = client(exchange -> {
+			sleep(3000);
+			respond(exchange, 200, "{}");
+		}, 300);
+
+		long start = System.nanoTime();
+		CompletableFuture<String> future = client.generateContent("cv tips");
+		assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+				.hasCauseInstanceOf(GeminiClient.GeminiException.class)
+				.hasMessageContaining("timed out");
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2000);
+	}
+
+	@Test
+	void slowBodyTimesOut() {
+		GeminiClient client = client(exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			exchange.sendResponseHeaders(200, 0);
+			OutputStream body = exchange.getResponseBody();
+			for (int i = 0; i < 30; i++) {
+				body.write(' ');
+				body.flush();
+				sleep(100);
+			}
+			exchange.close();
+		}, 300);
+
+		long start = System.nanoTime();
+		CompletableFuture<String> future = client.generateContent("cv tips");
+		assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+				.hasCauseInstanceOf(GeminiClient.GeminiException.class)
+				.hasMessageContaining("timed out");
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2000);
+	}
+
+	@Test
+	void streamDeliversChunksAsTheyArrive() throws Exception {
+		GeminiClient client = client(exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+			exchange.sendResponseHeaders(200, 0);
+			OutputStream body = exchange.getResponseBody();
+			for (String text : List.of("Polish ", "your ", "CV")) {
+				writeEvent(body, text);
+				sleep(50);
+			}
+			// Gemini's last chunk may carry only a finish reason
+			body.write("data: {\"candidates\":[{\"finishReason\":\"STOP\"}]}\n\n".getBytes(StandardCharsets.UTF_8));
+			exchange.close();
+		}, 1000);
+
+		List<String> chunks = new CopyOnWriteArrayList<>();
+		client.streamGenerateContent("cv tips", chunks::add).get(5, TimeUnit.SECONDS);
+
+		assertThat(chunks).containsExactly("Polish ", "your ", "CV");
+	}
+
+	@Test
+	void cancellingTheStreamClosesTheUpstreamConnection() throws Exception {
+		CountDownLatch closed = new CountDownLatch(1);
+		GeminiClient client = client(exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			exchange.sendResponseHeaders(200, 0);
+			OutputStream body = exchange.getResponseBody();
+			try {
+				for (int i = 0; i < 200; i++) {
+					writeEvent(body, "chunk " + i);
+					sleep(25);
+				}
+			} catch (IOException e) {
+				closed.countDown();
+			}
+		}, 1000);
+
+		List<String> chunks = new CopyOnWriteArrayList<>();
+		CompletableFuture<Void> stream = client.streamGenerateContent("cv tips", chunks::add);
+		await().atMost(Duration.ofSeconds(5)).until(() -> !chunks.isEmpty());
+		stream.cancel(true);
+
+		assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(chunks.size()).isLessThan(200);
+	}
+
+	private GeminiClient client(StubHandler handler, long requestTimeoutMs) {
+		try {
+			server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/", exchange -> {
+			try {
+				handler.handle(exchange);
+			} catch (IOException e) {
+				// Client gave up first
+			}
+		});
+		server.start();
+		String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/models/test";
+		return new GeminiClient(url, "test", 1000, requestTimeoutMs);
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		exchange.getRequestBody().readAllBytes();
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(status, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+
+	private static void writeEvent(OutputStream body, String text) throws IOException {
+		String event = "data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + text + "\"}]}}]}\n\n";
+		body.write(event.getBytes(StandardCharsets.UTF_8));
+		body.flush();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private interface StubHandler {
+		void handle(HttpExchange exchange) throws IOException;
+	}
+}
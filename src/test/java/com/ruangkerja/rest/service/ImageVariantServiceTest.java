@@ -0,0 +1,193 @@
+package com.ruangkerja.rest.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageVariantServiceTest {
+
+	@TempDir
+	Path uploadDir;
+
+	private final ImageVariantService service = new ImageVariantService();
+
+	{
+		service.start();
+	}
+
+	@AfterEach
+	void stop() {
+		service.stop();
+	}
+
+	@Test
+	void createsScaledJpegVariants() throws IOException {
+		Path original = writePng("logo_1.png", 1200, 600);
+
+		service.createVariants(original);
+
+		BufferedImage thumbnail = ImageIO.read(uploadDir.resolve("logo_1_w96.jpg").toFile());
+		BufferedImage medium = ImageIO.read(uploadDir.resolve("logo_1_w640.jpg").toFile());
+		assertThat(thumbnail.getWidth()).isEqualTo(96);
+		assertThat(thumbnail.getHeight()).isEqualTo(48);
+		assertThat(medium.getWidth()).isEqualTo(640);
+		assertThat(medium.getHeight()).isEqualTo(320);
+	}
+
+	@Test
+	void smallImagesAreNotUpscaled() throws IOException {
+		Path original = writePng("avatar_2.png", 200, 200);
+
+		service.createVariants(original);
+
+		assertThat(ImageIO.read(uploadDir.resolve("avatar_2_w640.jpg").toFile()).getWidth()).isEqualTo(200);
+		assertThat(ImageIO.read(uploadDir.resolve("avatar_2_w96.jpg").toFile()).getWidth()).isEqualTo(96);
+	}
+
+	@Test
+	void resolvePicksSmallestVariantThatFits() throws IOException {
+		Path original = writePng("photo_3.png", 1000, 1000);
+		service.createVariants(original);
+
+		assertThat(service.resolve(original, 40)).isEqualTo(uploadDir.resolve("photo_3_w96.jpg"));
+		assertThat(service.resolve(original, 300)).isEqualTo(uploadDir.resolve("photo_3_w640.jpg"));
+		assertThat(service.resolve(original, 2000)).isEqualTo(original);
+	}
+
+	@Test
+	void undecodableFilesKeepTheOriginal() throws IOException {
+		Path original = Files.writeString(uploadDir.resolve("icon_4.svg"), "<svg xmlns=\"http://www.w3.org/2000/svg\"/>");
+
+		service.createVariants(original);
+
+		assertThat(service.resolve(original, 40)).isEqualTo(original);
+		assertThat(uploadDir.resolve("icon_4_w96.jpg")).doesNotExist();
+	}
+
+	@Test
+	void deleteVariantsRemovesAllSizes() throws IOException {
+		Path original = writePng("old_5.png", 800, 400);
+		service.createVariants(original);
+
+		service.deleteVariants(original);
+
+		assertThat(uploadDir.resolve("old_5_w96.jpg")).doesNotExist();
+		assertThat(uploadDir.resolve("old_5_w640.jpg")).doesNotExist();
+		assertThat(original).exists();
+	}
+
+	@Test
+	void variantsAreServedAsIsAndNeverReprocessed() throws IOException {
+		Path original = writePng("banner_6.png", 800, 400);
+		service.createVariants(original);
+		Path variant = uploadDir.resolve("banner_6_w96.jpg");
+
+		assertThat(service.resolve(variant, 50)).isEqualTo(variant);
+		service.generateVariants(variant);
+
+		assertThat(pending()).isEmpty();
+		assertThat(uploadDir.resolve("banner_6_w96_w96.jpg")).doesNotExist();
+	}
+
+	@Test
+	void rejectedJobDoesNotLeavePendingKey() throws IOException {
+		Path original = writePng("late_7.png", 800, 400);
+		service.stop();
+
+		service.generateVariants(original);
+
+		assertThat(pending()).isEmpty();
+	}
+
+	@Test
+	void largeImagesAreSubsampledOnDecode() throws IOException {
+		// White even columns, black odd ones: reading every second column sees only white, while
+		// scaling the full image would average the stripes to grey
+		BufferedImage image = new BufferedImage(2560, 200, BufferedImage.TYPE_INT_RGB);
+		for (int x = 0; x < image.getWidth(); x++) {
+			for (int y = 0; y < image.getHeight(); y++) {
+				image.setRGB(x, y, x % 2 == 0 ? 0xFFFFFF : 0x000000);
+			}
+		}
+		Path original = uploadDir.resolve("stripes_8.png");
+		ImageIO.write(image, "png", original.toFile());
+
+		service.createVariants(original);
+
+		BufferedImage medium = ImageIO.read(uploadDir.resolve("stripes_8_w640.jpg").toFile());
+		assertThat(medium.getWidth()).isEqualTo(640);
+		assertThat(new Color(medium.getRGB(320, 25)).getGreen()).isGreaterThan(240);
+	}
+
+	@Test
+	void exifOrientationIsApplied() throws IOException {
+		// Stored landscape with a red top-left corner; orientation 6 shows it rotated clockwise,
+		// as a portrait with the red corner at the top right
+		BufferedImage image = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+		for (int x = 0; x < 400; x++) {
+			for (int y = 0; y < 200; y++) {
+				image.setRGB(x, y, x < 200 && y < 100 ? 0xFF0000 : 0x0000FF);
+			}
+		}
+		Path original = writeJpegWithOrientation("portrait_9.jpg", image, 6);
+
+		service.createVariants(original);
+
+		BufferedImage thumbnail = ImageIO.read(uploadDir.resolve("portrait_9_w96.jpg").toFile());
+		assertThat(thumbnail.getWidth()).isEqualTo(96);
+		assertThat(thumbnail.getHeight()).isEqualTo(192);
+		assertThat(new Color(thumbnail.getRGB(85, 10)).getRed()).isGreaterThan(200);
+		assertThat(new Color(thumbnail.getRGB(10, 10)).getBlue()).isGreaterThan(200);
+	}
+
+	// --- Helper Methods ---
+	// A JPEG with an EXIF APP1 segment holding only the orientation tag, placed after JFIF APP0
+	private Path writeJpegWithOrientation(String name, BufferedImage image, int orientation) throws IOException {
+		ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+		ImageIO.write(image, "jpg", jpeg);
+		byte[] bytes = jpeg.toByteArray();
+		int afterApp0 = 4 + ((bytes[4] & 0xFF) << 8 | (bytes[5] & 0xFF));
+
+		byte[] exif = {
+				'E', 'x', 'i', 'f', 0, 0,
+				'M', 'M', 0, 42, 0, 0, 0, 8,
+				0, 1,
+				0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+				0, 0, 0, 0};
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(bytes, 0, afterApp0);
+		out.write(new byte[]{(byte) 0xFF, (byte) 0xE1, 0, (byte) (exif.length + 2)});
+		out.write(exif);
+		out.write(bytes, afterApp0, bytes.length - afterApp0);
+		return Files.write(uploadDir.resolve(name), out.toByteArray());
+	}
+
+	@SuppressWarnings("unchecked")
+	private Set<String> pending() {
+		return (Set<String>) ReflectionTestUtils.getField(service, "pending");
+	}
+
+	private Path writePng(String name, int width, int height) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		for (int x = 0; x < width; x += 10) {
+			for (int y = 0; y < height; y++) {
+				image.setRGB(x, y, 0x80336699);
+			}
+		}
+		Path file = uploadDir.resolve(name);
+		ImageIO.write(image, "png", file.toFile());
+		return file;
+	}
+}
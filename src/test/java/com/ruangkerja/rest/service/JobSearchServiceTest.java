@@ -0,0 +1,70 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.repository.JobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JobSearchServiceTest {
+
+	private final JobRepository jobRepository = mock(JobRepository.class);
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final JobSearchService jobSearchService = new JobSearchService(jobRepository, jdbcTemplate);
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void facetsIgnoreTheirOwnFilter() {
+		when(jobRepository.countActiveJobFacets("java")).thenReturn(List.of(
+				new Object[]{"full-time", "jawa-barat", "Bandung", 1, 4L},
+				new Object[]{"part-time", "jawa-barat", "Bandung", -1, 2L},
+				new Object[]{"full-time", "dki-jakarta", "Jakarta", 3, 5L}));
+
+		Map<String, Object> facets = jobSearchService.countFacets("java", "full-time", "jawa-barat", null);
+
+		List<Map<String, Object>> types = (List<Map<String, Object>>) facets.get("type");
+		assertThat(types).extracting(v -> v.get("value"), v -> v.get("count"))
+				.containsExactly(tuple("full-time", 4L), tuple("part-time", 2L));
+		List<Map<String, Object>> provinces = (List<Map<String, Object>>) facets.get("province");
+		assertThat(provinces).extracting(v -> v.get("value")).containsExactly("dki-jakarta", "jawa-barat");
+		List<Map<String, Object>> salary = (List<Map<String, Object>>) facets.get("salary");
+		assertThat(salary.get(1).get("count")).isEqualTo(4L);
+		assertThat(facets.get("total")).isEqualTo(4L);
+	}
+
+	@Test
+	void keywordSearchFallsBackToLikeWithoutFullTextIndex() {
+		assertThat(jobSearchService.toBooleanQuery("java developer")).isNull();
+		assertThat(jobSearchService.searchMode("java")).isEqualTo(JobSearchService.MODE_LIKE);
+	}
+
+	@Test
+	void keywordSearchRequiresEveryWordAsPrefix() {
+		when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(Object[].class))).thenReturn(1);
+		jobSearchService.ensureFullTextIndex();
+
+		assertThat(jobSearchService.toBooleanQuery("Java, Developer")).isEqualTo("+java* +developer*");
+		// Words under InnoDB's minimum token length cannot be matched through the index
+		assertThat(jobSearchService.toBooleanQuery("ui designer")).isNull();
+		// Nor can stopwords, which are never indexed
+		assertThat(jobSearchService.toBooleanQuery("head of marketing")).isNull();
+	}
+
+	@Test
+	void minimumTokenLengthComesFromTheServer() {
+		when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(Object[].class))).thenReturn(1);
+		when(jdbcTemplate.queryForObject("SELECT @@innodb_ft_min_token_size", Integer.class)).thenReturn(2);
+		jobSearchService.ensureFullTextIndex();
+
+		assertThat(jobSearchService.toBooleanQuery("ui designer")).isEqualTo("+ui* +designer*");
+	}
+}
@@ -0,0 +1,43 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.repository.CandidateRepository;
+import com.ruangkerja.rest.repository.CompanyRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LocationDictionaryServiceTest {
+
+	private final CompanyRepository companyRepository = mock(CompanyRepository.class);
+	private final CandidateRepository candidateRepository = mock(CandidateRepository.class);
+	private final LocationDictionaryService service = new LocationDictionaryService(companyRepository, candidateRepository);
+
+	@Test
+	void citiesOfKnownProvinceAreCachedUnderItsStoredName() {
+		when(companyRepository.findDistinctProvinces()).thenReturn(List.of("jawa-barat"));
+		when(companyRepository.findDistinctCitiesByProvince("jawa-barat")).thenReturn(List.of("Bandung", "Bekasi"));
+
+		assertThat(service.getCompanyCities("jawa-barat")).containsExactly("Bandung", "Bekasi");
+		assertThat(service.getCompanyCities("JAWA-BARAT")).containsExactly("Bandung", "Bekasi");
+		verify(companyRepository, times(1)).findDistinctCitiesByProvince("jawa-barat");
+	}
+
+	@Test
+	void unknownProvincesAreNeitherQueriedNorCached() {
+		when(candidateRepository.findDistinctProvinces()).thenReturn(List.of("jawa-barat"));
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(service.getCandidateCities("made-up-" + i)).isEmpty();
+		}
+		assertThat(service.getCandidateCities(null)).isEmpty();
+		verify(candidateRepository, never()).findDistinctCitiesByProvince(anyString());
+	}
+}
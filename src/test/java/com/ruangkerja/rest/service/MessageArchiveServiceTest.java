@@ -0,0 +1,128 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.entity.Conversation;
+import com.ruangkerja.rest.entity.Message;
+import com.ruangkerja.rest.entity.MessageArchiveSegment;
+import com.ruangkerja.rest.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The scheduled job is off; tests call archiveOlderThan directly
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"app.chat.archive.enabled=false",
+		"app.chat.archive.segment-size=8"})
+@Import({ChatHistoryService.class, MessageArchiveService.class})
+class MessageArchiveServiceTest {
+
+	private static final int MESSAGES = 30;
+	private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private MessageArchiveService messageArchiveService;
+
+	@Autowired
+	private ChatHistoryService chatHistoryService;
+
+	private User alice;
+	private User bob;
+	private final List<Long> ids = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		alice = user("alice@example.com");
+		bob = user("bob@example.com");
+		Conversation thread = new Conversation();
+		thread.setUser1(alice);
+		thread.setUser2(bob);
+		entityManager.persist(thread);
+		Message message = null;
+		for (int i = 0; i < MESSAGES; i++) {
+			message = new Message();
+			message.setConversation(thread);
+			message.setSender(i % 2 == 0 ? alice : bob);
+			message.setReceiver(i % 2 == 0 ? bob : alice);
+			message.setContent("message " + i);
+			ids.add(entityManager.persist(message).getId());
+		}
+		thread.setLastMessage(message);
+		entityManager.flush();
+		// One message a minute, so the first 20 are older than START + 20 minutes
+		for (int i = 0; i < MESSAGES; i++) {
+			entityManager.getEntityManager().createNativeQuery("UPDATE messages SET created_at = ? WHERE id = ?")
+					.setParameter(1, START.plusMinutes(i))
+					.setParameter(2, ids.get(i))
+					.executeUpdate();
+		}
+		entityManager.clear();
+
+		assertThat(messageArchiveService.archiveOlderThan(START.plusMinutes(20))).isEqualTo(20);
+		entityManager.clear();
+	}
+
+	@Test
+	void oldMessagesMoveIntoSegments() {
+		List<MessageArchiveSegment> segments = entityManager.getEntityManager()
+				.createQuery("SELECT s FROM MessageArchiveSegment s ORDER BY s.firstMessageId", MessageArchiveSegment.class)
+				.getResultList();
+		Long hot = entityManager.getEntityManager().createQuery("SELECT COUNT(m) FROM Message m", Long.class).getSingleResult();
+
+		assertThat(segments).extracting(MessageArchiveSegment::getMessageCount).containsExactly(8, 8, 4);
+		assertThat(hot).isEqualTo(10L);
+		assertThat(messageArchiveService.archiveOlderThan(START.plusMinutes(20))).isZero();
+	}
+
+	@Test
+	void windowsContinueIntoTheArchive() {
+		ChatHistoryService.MessageWindow newest = chatHistoryService.getMessages(alice.getId(), bob.getId(), null, null, 20);
+		assertThat(newest.getMessages()).extracting(Message::getId).containsExactlyElementsOf(ids.subList(10, 30));
+		assertThat(newest.isHasOlder()).isTrue();
+
+		ChatHistoryService.MessageWindow oldest = chatHistoryService.getMessages(alice.getId(), bob.getId(), ids.get(10), null, 20);
+		assertThat(oldest.getMessages()).extracting(Message::getId).containsExactlyElementsOf(ids.subList(0, 10));
+		assertThat(oldest.isHasOlder()).isFalse();
+		assertThat(oldest.getMessages().get(3).getContent()).isEqualTo("message 3");
+		assertThat(oldest.getMessages().get(3).getSender().getEmail()).isEqualTo("bob@example.com");
+	}
+
+	@Test
+	void archivedMessagesWorkAsCursors() {
+		ChatHistoryService.MessageWindow older = chatHistoryService.getMessages(alice.getId(), bob.getId(), ids.get(5), null, 3);
+		assertThat(older.getMessages()).extracting(Message::getId).containsExactlyElementsOf(ids.subList(2, 5));
+		assertThat(older.isHasOlder()).isTrue();
+
+		ChatHistoryService.MessageWindow newer = chatHistoryService.getMessages(alice.getId(), bob.getId(), null, ids.get(15), 10);
+		assertThat(newer.getMessages()).extracting(Message::getId).containsExactlyElementsOf(ids.subList(16, 26));
+		assertThat(newer.isHasNewer()).isTrue();
+	}
+
+	@Test
+	void pagesSpanArchiveAndHotTable() {
+		Page<Message> page = chatHistoryService.getPage(alice.getId(), bob.getId(), PageRequest.of(2, 8));
+
+		assertThat(page.getTotalElements()).isEqualTo(MESSAGES);
+		assertThat(page.getContent()).extracting(Message::getId).containsExactlyElementsOf(ids.subList(16, 24));
+	}
+
+	private User user(String email) {
+		User user = new User();
+		user.setEmail(email);
+		user.setPassword("secret123");
+		return entityManager.persist(user);
+	}
+}
@@ -0,0 +1,138 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.config.WebSocketConfig;
+import com.ruangkerja.rest.repository.ConversationRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.DefaultSimpUserRegistry;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PresenceServiceTest {
+
+	private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+	private final DefaultSimpUserRegistry userRegistry = new DefaultSimpUserRegistry();
+	private final ConversationRepository conversationRepository = mock(ConversationRepository.class);
+	private final PresenceService presenceService = new PresenceService(messagingTemplate, userRegistry, conversationRepository);
+	private final AtomicLong now = new AtomicLong(1_000_000);
+
+	{
+		presenceService.clock = now::get;
+	}
+
+	@Test
+	void userStaysOnlineUntilLastSessionCloses() {
+		connect("1", "s1");
+		connect("1", "s2");
+		disconnect("1", "s1");
+		assertThat(presenceService.isOnline(1L)).isTrue();
+
+		now.addAndGet(5000);
+		disconnect("1", "s2");
+
+		Map<String, Object> presence = presenceService.getPresence(List.of(1L)).get(0);
+		assertThat(presence.get("online")).isEqualTo(false);
+		assertThat(presence.get("lastSeen")).isNotNull();
+	}
+
+	@Test
+	void usersConnectedToAnotherNodeAreOnline() {
+		// In relay mode the registry also lists users whose sessions live on other nodes
+		SimpUserRegistry clusterRegistry = mock(SimpUserRegistry.class);
+		when(clusterRegistry.getUser("7")).thenReturn(mock(SimpUser.class));
+		PresenceService service = new PresenceService(messagingTemplate, clusterRegistry, conversationRepository);
+
+		assertThat(service.isOnline(7L)).isTrue();
+		assertThat(service.getPresence(List.of(7L, 8L))).extracting(p -> p.get("online")).containsExactly(true, false);
+	}
+
+	@Test
+	void lastSeenIsForgottenAfterADay() {
+		connect("1", "s1");
+		disconnect("1", "s1");
+		assertThat(presenceService.getPresence(List.of(1L)).get(0).get("lastSeen")).isNotNull();
+
+		now.addAndGet(TimeUnit.HOURS.toMillis(25));
+
+		assertThat(presenceService.getPresence(List.of(1L)).get(0).get("lastSeen")).isNull();
+	}
+
+	@Test
+	void anonymousSessionsAreIgnored() {
+		connect("0b7c6f1e-5b1d-4a0e-9d7e-2f6c1c0d9a11", "s1");
+
+		assertThat(presenceService.getPresence(List.of(2L)).get(0).get("lastSeen")).isNull();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void changesAreFannedOutOncePerPartnerPerFlush() {
+		// Users 1 and 2 both talk to 3; 4 talks to 1 but is not connected anywhere
+		when(conversationRepository.findParticipantIdsForUsers(anyCollection())).thenReturn(List.of(
+				new Object[]{1L, 3L}, new Object[]{3L, 2L}, new Object[]{4L, 1L}));
+		connect("3", "c");
+		presenceService.flush();
+
+		connect("1", "a");
+		connect("2", "b");
+		presenceService.flush();
+
+		ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+		verify(messagingTemplate, times(1)).convertAndSendToUser(eq("3"), eq(PresenceService.PRESENCE_DESTINATION), payload.capture());
+		verify(messagingTemplate, never()).convertAndSendToUser(eq("4"), any(), any(Object.class));
+		assertThat((List<Map<String, Object>>) payload.getValue())
+				.extracting(p -> p.get("userId"), p -> p.get("online"))
+				.containsExactlyInAnyOrder(tuple(1L, true), tuple(2L, true));
+
+		// Nothing changed since, so the next flush sends nothing
+		presenceService.flush();
+		verify(conversationRepository, times(2)).findParticipantIdsForUsers(anyCollection());
+	}
+
+	// The registry sees each event too, as it does in the application context
+	private void connect(String user, String sessionId) {
+		SessionConnectedEvent event = new SessionConnectedEvent(this, message(sessionId), principal(user));
+		userRegistry.onApplicationEvent(event);
+		presenceService.onConnected(event);
+	}
+
+	private void disconnect(String user, String sessionId) {
+		SessionDisconnectEvent event = new SessionDisconnectEvent(this, message(sessionId), sessionId, CloseStatus.NORMAL, principal(user));
+		userRegistry.onApplicationEvent(event);
+		presenceService.onDisconnect(event);
+	}
+
+	private static Message<byte[]> message(String sessionId) {
+		SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+		accessor.setSessionId(sessionId);
+		return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+	}
+
+	private static Principal principal(String name) {
+		return new WebSocketConfig.StompPrincipal(name);
+	}
+}
@@ -0,0 +1,133 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.dto.ChatMessageWebSocketDto;
+import com.ruangkerja.rest.entity.Conversation;
+import com.ruangkerja.rest.entity.Message;
+import com.ruangkerja.rest.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// The background flush is pushed far out so the test drives flush() itself
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"app.chat.receipts.flush-interval-ms=3600000"})
+@Import(ReadReceiptService.class)
+class ReadReceiptServiceTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private ReadReceiptService readReceiptService;
+
+	@MockitoBean
+	private SimpMessagingTemplate messagingTemplate;
+
+	private User alice;
+	private User bob;
+	private Conversation thread;
+	private final List<Long> ids = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		alice = user("alice@example.com");
+		bob = user("bob@example.com");
+		thread = new Conversation();
+		thread.setUser1(alice);
+		thread.setUser2(bob);
+		entityManager.persist(thread);
+		for (int i = 0; i < 5; i++) {
+			Message message = new Message();
+			message.setConversation(thread);
+			message.setSender(alice);
+			message.setReceiver(bob);
+			message.setContent("m" + i);
+			ids.add(entityManager.persist(message).getId());
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void burstOfReadFramesBecomesOneMarkAndOneReceipt() {
+		readReceiptService.markRead(bob.getId(), alice.getId(), ids.get(1));
+		readReceiptService.markRead(bob.getId(), alice.getId(), ids.get(3));
+		readReceiptService.markRead(bob.getId(), alice.getId(), ids.get(2));
+		readReceiptService.flush();
+
+		ArgumentCaptor<ChatMessageWebSocketDto> receipt = ArgumentCaptor.forClass(ChatMessageWebSocketDto.class);
+		verify(messagingTemplate, times(1)).convertAndSendToUser(
+				eq(alice.getId().toString()), eq(ReadReceiptService.RECEIPTS_DESTINATION), receipt.capture());
+		assertThat(receipt.getValue().getType()).isEqualTo(ReadReceiptService.TYPE_READ);
+		assertThat(receipt.getValue().getId()).isEqualTo(ids.get(3));
+		assertThat(receipt.getValue().getSenderId()).isEqualTo(bob.getId());
+		assertThat(readMark()).isEqualTo(ids.get(3));
+	}
+
+	@Test
+	void markNeverMovesBackwards() {
+		readReceiptService.markRead(bob.getId(), alice.getId(), ids.get(3));
+		readReceiptService.flush();
+		readReceiptService.markRead(bob.getId(), alice.getId(), ids.get(1));
+		readReceiptService.flush();
+
+		verify(messagingTemplate, times(1)).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+		assertThat(readMark()).isEqualTo(ids.get(3));
+	}
+
+	@Test
+	void markingWithoutMessageIdReadsUpToNewest() {
+		readReceiptService.markRead(bob.getId(), alice.getId(), null);
+		readReceiptService.flush();
+
+		assertThat(readMark()).isEqualTo(ids.get(4));
+	}
+
+	@Test
+	void markReadNowAppliesWithoutFlush() {
+		readReceiptService.markReadNow(bob.getId(), alice.getId(), null);
+
+		assertThat(readMark()).isEqualTo(ids.get(4));
+		verify(messagingTemplate, times(1)).convertAndSendToUser(
+				eq(alice.getId().toString()), eq(ReadReceiptService.RECEIPTS_DESTINATION), any(Object.class));
+	}
+
+	@Test
+	void messagesOfOtherConversationsAreIgnored() {
+		User carol = user("carol@example.com");
+		readReceiptService.markRead(bob.getId(), carol.getId(), ids.get(2));
+		readReceiptService.flush();
+
+		verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+	}
+
+	private Long readMark() {
+		entityManager.clear();
+		return entityManager.find(Conversation.class, thread.getId()).getUser2LastReadMessageId();
+	}
+
+	private User user(String email) {
+		User user = new User();
+		user.setEmail(email);
+		user.setPassword("secret123");
+		return entityManager.persist(user);
+	}
+}
@@ -0,0 +1,102 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.entity.Candidate;
+import com.ruangkerja.rest.entity.Company;
+import com.ruangkerja.rest.entity.Skill;
+import com.ruangkerja.rest.repository.CandidateRepository;
+import com.ruangkerja.rest.repository.CompanyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchIndexServiceTest {
+
+	private SearchIndexService searchIndexService;
+
+	@BeforeEach
+	void setUp() {
+		CompanyRepository companyRepository = mock(CompanyRepository.class);
+		CandidateRepository candidateRepository = mock(CandidateRepository.class);
+		when(companyRepository.findAll()).thenReturn(List.of(
+				company(1L, "Tokopedia", "Jakarta Selatan"),
+				company(2L, "Java Software House", "Bandung")));
+		when(candidateRepository.findAllWithSkills()).thenReturn(List.of(candidate(7L, "Budi Santoso", "Surabaya", "Java")));
+
+		searchIndexService = new SearchIndexService(companyRepository, candidateRepository, new SearchSuggestService());
+		searchIndexService.rebuild();
+	}
+
+	@Test
+	void matchesTokenPrefixesAcrossFields() {
+		assertThat(search("toko")).extracting(r -> r.get("id")).containsExactly(1L);
+		assertThat(search("jakarta selatan")).hasSize(1);
+		assertThat(search("jakarta surabaya")).isEmpty();
+	}
+
+	@Test
+	void ranksNameMatchesAboveSkillMatches() {
+		assertThat(search("java")).extracting(r -> r.get("type")).containsExactly("company", "candidate");
+	}
+
+	@Test
+	void pagesThroughResultsWithCursor() {
+		List<Object> seen = new ArrayList<>();
+		String cursor = null;
+		do {
+			SearchIndexService.SearchPage page = searchIndexService.search("technology", 1, cursor);
+			assertThat(page.getResults()).hasSize(1);
+			seen.add(page.getResults().get(0).get("id"));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+
+		assertThat(seen).containsExactlyInAnyOrder(1L, 2L);
+	}
+
+	@Test
+	void toleratesTyposWhenNothingMatchesExactly() {
+		assertThat(search("Jakrta")).extracting(r -> r.get("id")).containsExactly(1L);
+		assertThat(search("Surabya")).extracting(r -> r.get("id")).containsExactly(7L);
+		assertThat(search("Tokopdia Jakarta")).extracting(r -> r.get("id")).containsExactly(1L);
+	}
+
+	@Test
+	void reflectsUpdatesAndRemovals() {
+		searchIndexService.indexCompany(company(1L, "Gojek", "Jakarta"));
+		assertThat(search("tokopedia")).isEmpty();
+		assertThat(search("gojek")).extracting(r -> r.get("name")).containsExactly("Gojek");
+
+		searchIndexService.removeCandidate(7L);
+		assertThat(search("budi")).isEmpty();
+	}
+
+	private List<Map<String, Object>> search(String query) {
+		return searchIndexService.search(query, 20, null).getResults();
+	}
+
+	private static Company company(Long id, String name, String hq) {
+		Company company = new Company();
+		company.setId(id);
+		company.setCompanyName(name);
+		company.setHq(hq);
+		company.setIndustry("Technology");
+		return company;
+	}
+
+	private static Candidate candidate(Long id, String name, String city, String skillName) {
+		Candidate candidate = new Candidate();
+		candidate.setId(id);
+		candidate.setFullName(name);
+		candidate.setCity(city);
+		Skill skill = new Skill();
+		skill.setName(skillName);
+		candidate.getSkill().add(skill);
+		return candidate;
+	}
+}
@@ -0,0 +1,50 @@
+package com.ruangkerja.rest.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchSuggestServiceTest {
+
+	@Test
+	void ranksCompletionsByPopularityAndMatchesInnerWords() {
+		SearchSuggestService suggest = new SearchSuggestService();
+		suggest.add(SearchSuggestService.TYPE_CITY, "Jakarta Selatan");
+		suggest.add(SearchSuggestService.TYPE_CITY, "Jakarta");
+		suggest.add(SearchSuggestService.TYPE_CITY, "Jakarta");
+
+		assertThat(suggest.suggest("jak", 5)).extracting(r -> r.get("text"))
+				.containsExactly("Jakarta", "Jakarta Selatan");
+		assertThat(suggest.suggest("sel", 5)).extracting(r -> r.get("text"))
+				.containsExactly("Jakarta Selatan");
+	}
+
+	@Test
+	void removingFromFullListPromotesNextPhrase() {
+		SearchSuggestService suggest = new SearchSuggestService();
+		for (int i = 0; i < 12; i++) {
+			suggest.add(SearchSuggestService.TYPE_SKILL, "Skill " + (char) ('a' + i));
+		}
+		suggest.add(SearchSuggestService.TYPE_SKILL, "Skill a");
+		suggest.remove(SearchSuggestService.TYPE_SKILL, "Skill a");
+		suggest.remove(SearchSuggestService.TYPE_SKILL, "Skill a");
+
+		assertThat(suggest.suggest("skill", 20)).hasSize(10)
+				.extracting(r -> r.get("text")).doesNotContain("Skill a").contains("Skill k");
+	}
+
+	@Test
+	void phraseCapEvictsLeastPopular() {
+		SearchSuggestService suggest = new SearchSuggestService();
+		ReflectionTestUtils.setField(suggest, "maxPhrases", 2);
+		suggest.add(SearchSuggestService.TYPE_SKILL, "Java");
+		suggest.add(SearchSuggestService.TYPE_SKILL, "Java");
+		suggest.add(SearchSuggestService.TYPE_SKILL, "Jira");
+		suggest.add(SearchSuggestService.TYPE_SKILL, "Jenkins");
+
+		assertThat(suggest.suggest("j", 5)).extracting(r -> r.get("text"))
+				.containsExactly("Java", "Jenkins");
+		assertThat(suggest.suggest("jir", 5)).isEmpty();
+	}
+}
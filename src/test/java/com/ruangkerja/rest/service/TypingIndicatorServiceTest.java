@@ -0,0 +1,99 @@
+package com.ruangkerja.rest.service;
+
+import com.ruangkerja.rest.dto.ChatMessageWebSocketDto;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TypingIndicatorServiceTest {
+
+	private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+	private final TypingIndicatorService service = new TypingIndicatorService(messagingTemplate);
+	private final AtomicLong now = new AtomicLong(10_000);
+
+	{
+		service.clock = now::get;
+	}
+
+	@Test
+	void burstOfTypingFramesIsForwardedOnce() {
+		for (int i = 0; i < 30; i++) {
+			service.onTyping(frame());
+			now.addAndGet(30);
+		}
+
+		assertThat(pushedTypes(1)).containsExactly(TypingIndicatorService.TYPE_TYPING);
+	}
+
+	@Test
+	void quickStopAndRestartDoesNotFlicker() {
+		service.onTyping(frame());
+		now.addAndGet(200);
+		service.onStopTyping(frame());
+		now.addAndGet(200);
+		service.onTyping(frame());
+		now.addAndGet(2000);
+		service.sweep();
+
+		assertThat(pushedTypes(1)).containsExactly(TypingIndicatorService.TYPE_TYPING);
+	}
+
+	@Test
+	void stopIsHeldUntilIntervalThenPublishedBySweep() {
+		service.onTyping(frame());
+		now.addAndGet(300);
+		service.onStopTyping(frame());
+		verify(messagingTemplate, times(1)).convertAndSendToUser(any(), any(), any(Object.class));
+
+		now.addAndGet(800);
+		service.sweep();
+
+		assertThat(pushedTypes(2)).containsExactly(TypingIndicatorService.TYPE_TYPING, TypingIndicatorService.TYPE_STOP_TYPING);
+	}
+
+	@Test
+	void typingExpiresWithoutStopFrame() {
+		service.onTyping(frame());
+		now.addAndGet(4000);
+		service.sweep();
+		verify(messagingTemplate, times(1)).convertAndSendToUser(any(), any(), any(Object.class));
+
+		now.addAndGet(1500);
+		service.sweep();
+
+		assertThat(pushedTypes(2)).containsExactly(TypingIndicatorService.TYPE_TYPING, TypingIndicatorService.TYPE_STOP_TYPING);
+	}
+
+	@Test
+	void framesWithoutParticipantsAreIgnored() {
+		service.onTyping(new ChatMessageWebSocketDto());
+
+		verify(messagingTemplate, never()).convertAndSendToUser(any(), any(), any(Object.class));
+	}
+
+	private static ChatMessageWebSocketDto frame() {
+		ChatMessageWebSocketDto frame = new ChatMessageWebSocketDto();
+		frame.setSenderId(1L);
+		frame.setReceiverId(2L);
+		frame.setSenderName("Alice");
+		return frame;
+	}
+
+	private List<String> pushedTypes(int expected) {
+		ArgumentCaptor<ChatMessageWebSocketDto> captor = ArgumentCaptor.forClass(ChatMessageWebSocketDto.class);
+		verify(messagingTemplate, times(expected))
+				.convertAndSendToUser(eq("2"), eq(TypingIndicatorService.TYPING_DESTINATION), captor.capture());
+		return captor.getAllValues().stream().map(ChatMessageWebSocketDto::getType).toList();
+	}
+}